@@ -0,0 +1,129 @@
+import java.awt.*;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.awt.image.VolatileImage;
+
+// An image pre-scaled once to its render size and kept in accelerated (VRAM) memory when possible. Cached images
+// (SpriteAtlas) are shared by renderers on different threads, so creating, validating and drawing the copies is
+// synchronized.
+public class AcceleratedImage {
+    private final Image source; // Original image to scale from
+    private final int width; // Render width in pixels
+    private final int height; // Render height in pixels
+    private final int transparency; // Transparency mode of the cached copy
+    private VolatileImage volatileImage; // Accelerated copy (may be lost at any time)
+    private BufferedImage fallbackImage; // Pre-scaled copy used when acceleration is unavailable
+
+    // Constructor for AcceleratedImage
+    public AcceleratedImage(Image source, int width, int height, int transparency) {
+        this.source = source; // Set the source image
+        this.width = width; // Set the render width
+        this.height = height; // Set the render height
+        this.transparency = transparency; // Set the transparency mode
+    }
+
+    // Check if a display scales user space (HiDPI). Volatile images there carry the scale themselves, which breaks
+    // drawing in device pixels, so scaled displays use the managed copy (Java2D still caches it in VRAM).
+    public static boolean isScaled(GraphicsConfiguration gc) {
+        if (gc == null) {
+            return false;
+        }
+        AffineTransform transform = gc.getDefaultTransform();
+        return transform.getScaleX() != 1.0 || transform.getScaleY() != 1.0;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    // Draw the cached copy at the given position without any scaling
+    public void draw(Graphics g, int x, int y, GraphicsConfiguration gc) {
+        drawRegion(g, x, y, 0, 0, width, height, gc);
+    }
+
+    // Draw the w x h part of the cached copy starting at (sx, sy) at the given position without any scaling
+    public synchronized void drawRegion(Graphics g, int x, int y, int sx, int sy, int w, int h, GraphicsConfiguration gc) {
+        if (gc == null || fallbackImage != null || isScaled(gc)) {
+            blit(g, getFallbackImage(gc), x, y, sx, sy, w, h); // Unaccelerated (or HiDPI) path
+            return;
+        }
+        do {
+            int status = volatileImage == null ? VolatileImage.IMAGE_INCOMPATIBLE : volatileImage.validate(gc);
+            if (status == VolatileImage.IMAGE_INCOMPATIBLE) {
+                volatileImage = createVolatileImage(gc); // (Re)create the accelerated copy
+                if (volatileImage == null) {
+                    blit(g, getFallbackImage(gc), x, y, sx, sy, w, h); // Acceleration is not available
+                    return;
+                }
+                renderSource(volatileImage); // Fill the new copy
+            } else if (status == VolatileImage.IMAGE_RESTORED) {
+                renderSource(volatileImage); // Contents were lost, scale the source again
+            }
+            blit(g, volatileImage, x, y, sx, sy, w, h); // Unscaled blit from VRAM
+        } while (volatileImage.contentsLost()); // Retry if the surface was lost while drawing
+    }
+
+    // Copy a same-size rectangle of an image
+    private static void blit(Graphics g, Image image, int x, int y, int sx, int sy, int w, int h) {
+        g.drawImage(image, x, y, x + w, y + h, sx, sy, sx + w, sy + h, null);
+    }
+
+    // Create a compatible volatile image, or null if it would not be accelerated
+    private VolatileImage createVolatileImage(GraphicsConfiguration gc) {
+        try {
+            VolatileImage image = gc.createCompatibleVolatileImage(width, height, transparency);
+            if (image != null && image.getCapabilities().isAccelerated()) {
+                return image; // Accelerated copy is available
+            }
+            if (image != null) {
+                image.flush(); // Release the unaccelerated surface
+            }
+        } catch (IllegalArgumentException e) {
+            // Fall through to the unaccelerated path
+        }
+        return null;
+    }
+
+    // Get the pre-scaled unaccelerated copy, creating it if needed
+    private BufferedImage getFallbackImage(GraphicsConfiguration gc) {
+        if (fallbackImage == null) {
+            fallbackImage = gc != null
+                    ? gc.createCompatibleImage(width, height, transparency) // Match the display format
+                    : new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB); // No display available
+            renderSource(fallbackImage); // Scale the source once
+        }
+        return fallbackImage;
+    }
+
+    // Scale the source image into the given target
+    private void renderSource(Image target) {
+        Graphics2D g = (Graphics2D) target.getGraphics();
+        try {
+            if (transparency != Transparency.OPAQUE) {
+                g.setComposite(AlphaComposite.Clear); // Clear any previous contents
+                g.fillRect(0, 0, width, height);
+                g.setComposite(AlphaComposite.SrcOver);
+            }
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.drawImage(source, 0, 0, width, height, null); // Scale once, here
+        } finally {
+            g.dispose(); // Release the graphics context
+        }
+    }
+
+    // Release the cached copies
+    public synchronized void flush() {
+        if (volatileImage != null) {
+            volatileImage.flush();
+            volatileImage = null;
+        }
+        if (fallbackImage != null) {
+            fallbackImage.flush();
+            fallbackImage = null;
+        }
+    }
+}
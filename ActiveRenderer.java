@@ -0,0 +1,70 @@
+import java.awt.*;
+import java.awt.image.BufferStrategy;
+
+// Renders frames directly from the game thread onto a Canvas through a BufferStrategy
+public class ActiveRenderer {
+
+    // Callback that draws one complete frame
+    public interface FramePainter {
+        void paintFrame(Graphics2D g, int width, int height, GraphicsConfiguration gc);
+    }
+
+    private final Canvas canvas; // Heavyweight surface we render onto
+    private BufferStrategy bufferStrategy; // Page-flipping or blitting back buffers
+
+    // Constructor for ActiveRenderer
+    public ActiveRenderer() {
+        canvas = new Canvas();
+        canvas.setIgnoreRepaint(true); // We paint ourselves, ignore AWT repaint requests
+        canvas.setFocusable(true); // Key events are delivered to the canvas
+    }
+
+    // Check whether active rendering can be used on this machine
+    public static boolean isSupported() {
+        if (GraphicsEnvironment.isHeadless()) {
+            return false; // No display at all
+        }
+        GraphicsConfiguration gc = GraphicsEnvironment.getLocalGraphicsEnvironment()
+                .getDefaultScreenDevice().getDefaultConfiguration();
+        return gc.getImageCapabilities().isAccelerated(); // Only worth it with accelerated images
+    }
+
+    public Canvas getCanvas() {
+        return canvas;
+    }
+
+    // Render one frame; returns false if the canvas is not ready yet
+    public boolean render(FramePainter painter) {
+        int width = canvas.getWidth();
+        int height = canvas.getHeight();
+        if (!canvas.isDisplayable() || width <= 0 || height <= 0) {
+            return false; // Canvas is not on screen yet
+        }
+        if (bufferStrategy == null) {
+            canvas.createBufferStrategy(2); // Double buffering, page flipping when available
+            bufferStrategy = canvas.getBufferStrategy();
+        }
+        GraphicsConfiguration gc = canvas.getGraphicsConfiguration();
+        do {
+            do {
+                Graphics2D g = (Graphics2D) bufferStrategy.getDrawGraphics();
+                try {
+                    painter.paintFrame(g, width, height, gc); // Draw the frame into the back buffer
+                } finally {
+                    g.dispose(); // Release the back buffer graphics
+                }
+            } while (bufferStrategy.contentsRestored()); // Redraw if the buffer was restored mid-frame
+            bufferStrategy.show(); // Flip or blit the back buffer to the screen
+        } while (bufferStrategy.contentsLost()); // Redraw if the buffer was lost
+        Toolkit.getDefaultToolkit().sync(); // Flush the pipeline on platforms that buffer
+        return true;
+    }
+
+    // Release the buffer strategy
+    public void dispose() {
+        if (bufferStrategy != null) {
+            bufferStrategy.dispose();
+            bufferStrategy = null;
+        }
+    }
+}
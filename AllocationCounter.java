@@ -0,0 +1,59 @@
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+
+// Counts heap bytes allocated by one thread and collections run by the JVM, to watch GC pressure
+public class AllocationCounter {
+    private final com.sun.management.ThreadMXBean threadBean; // HotSpot extension, null if unavailable
+    private volatile long threadId = -1; // Thread being measured
+    private volatile long baselineBytes = 0; // Allocated bytes when measurement started
+
+    // Constructor for AllocationCounter
+    public AllocationCounter() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean
+                && ((com.sun.management.ThreadMXBean) bean).isThreadAllocatedMemorySupported()) {
+            threadBean = (com.sun.management.ThreadMXBean) bean;
+            threadBean.setThreadAllocatedMemoryEnabled(true); // Make sure allocation tracking is on
+        } else {
+            threadBean = null; // Allocation counting is not supported by this JVM
+        }
+    }
+
+    public boolean isSupported() {
+        return threadBean != null;
+    }
+
+    // Start measuring allocations made by the calling thread
+    public void attachToCurrentThread() {
+        threadId = Thread.currentThread().getId();
+        baselineBytes = threadBean != null ? threadBean.getThreadAllocatedBytes(threadId) : 0;
+    }
+
+    // Bytes allocated by the measured thread since it was attached (-1 if unknown)
+    public long getAllocatedBytes() {
+        long id = threadId;
+        if (threadBean == null || id < 0) {
+            return -1;
+        }
+        long bytes = threadBean.getThreadAllocatedBytes(id);
+        return bytes < 0 ? -1 : bytes - baselineBytes; // -1 once the thread has died
+    }
+
+    // Total number of garbage collections run by the JVM
+    public static long getGcCount() {
+        long total = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            total += Math.max(0, gc.getCollectionCount());
+        }
+        return total;
+    }
+
+    // Total time spent in garbage collection by the JVM, in milliseconds
+    public static long getGcTimeMillis() {
+        long total = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            total += Math.max(0, gc.getCollectionTime());
+        }
+        return total;
+    }
+}
@@ -0,0 +1,190 @@
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.jar.JarFile;
+import java.util.zip.ZipEntry;
+import javax.imageio.ImageIO;
+
+// Central image cache: loads every asset once (in parallel at startup) and hands out display-compatible copies
+public class AssetManager {
+    // Every image the game needs
+    public static final String[] GAME_ASSETS = {"start.png", "play_screen.png", "a.png", "s.png", "d.png", "f.png", "b.png"};
+    private static final String JAR_FILE = "project.jar"; // Prebuilt jar that also contains the images
+
+    private final Map<String, BufferedImage> images = new ConcurrentHashMap<>(); // Loaded images by file name
+    private final Map<String, Long> loadNanos = new ConcurrentHashMap<>(); // Time spent loading each image
+    private final List<String> missing = Collections.synchronizedList(new ArrayList<>()); // Assets that could not be found
+    private final AtomicLong hits = new AtomicLong(); // Requests served from the cache
+    private final AtomicLong misses = new AtomicLong(); // Requests that had to load from disk
+    private volatile long preloadNanos = 0; // Total wall time spent in preload()
+
+    // Holder idiom: the instance is created on first use
+    private static class Holder {
+        static final AssetManager INSTANCE = new AssetManager();
+    }
+
+    // Get the shared AssetManager
+    public static AssetManager getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    // Load the given assets in parallel and report the missing ones; returns the names that could not be loaded
+    public List<String> preload(String... names) {
+        long start = System.nanoTime();
+        int threads = Math.max(1, Math.min(names.length, Runtime.getRuntime().availableProcessors()));
+        ExecutorService pool = Executors.newFixedThreadPool(threads, r -> {
+            Thread thread = new Thread(r, "asset-loader"); // Name the threads for debugging
+            thread.setDaemon(true);
+            return thread;
+        });
+        List<Future<?>> loads = new ArrayList<>();
+        for (String name : names) {
+            loads.add(pool.submit(() -> load(name))); // Decode every image on its own thread
+        }
+        for (Future<?> load : loads) {
+            try {
+                load.get(); // Wait for every image
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt(); // Restore interrupted status
+                break;
+            } catch (ExecutionException e) {
+                e.getCause().printStackTrace(); // Unexpected failure while decoding
+            }
+        }
+        pool.shutdown();
+        preloadNanos += System.nanoTime() - start;
+
+        List<String> notFound = new ArrayList<>();
+        for (String name : names) {
+            if (!images.containsKey(name)) {
+                notFound.add(name);
+            }
+        }
+        if (!notFound.isEmpty()) {
+            System.err.println("Missing assets: " + notFound); // Report missing assets up front
+        }
+        return notFound;
+    }
+
+    // Get an image from the cache, loading it now if it was not preloaded; null if it does not exist
+    public BufferedImage getImage(String name) {
+        BufferedImage image = images.get(name);
+        if (image != null) {
+            hits.incrementAndGet(); // Served from memory
+            return image;
+        }
+        misses.incrementAndGet(); // Has to go to disk
+        return load(name);
+    }
+
+    // Load, convert and cache one image
+    private BufferedImage load(String name) {
+        BufferedImage cached = images.get(name);
+        if (cached != null) {
+            return cached; // Another thread already loaded it
+        }
+        long start = System.nanoTime();
+        BufferedImage image = null;
+        try {
+            image = read(name);
+        } catch (IOException e) {
+            e.printStackTrace(); // Print stack trace if the image cannot be decoded
+        }
+        if (image == null) {
+            if (!missing.contains(name)) {
+                missing.add(name);
+            }
+            return null;
+        }
+        image = toCompatibleImage(image); // Match the display format so drawing does not convert pixels
+        images.put(name, image);
+        loadNanos.put(name, System.nanoTime() - start);
+        return image;
+    }
+
+    // Read an image from the classpath, then project.jar, then the working directory
+    private BufferedImage read(String name) throws IOException {
+        URL resource = AssetManager.class.getResource("/" + name);
+        if (resource != null) {
+            return ImageIO.read(resource); // Found on the classpath
+        }
+        File jar = new File(JAR_FILE);
+        if (jar.isFile()) {
+            try (JarFile jarFile = new JarFile(jar)) {
+                ZipEntry entry = jarFile.getEntry(name);
+                if (entry != null) {
+                    try (InputStream in = jarFile.getInputStream(entry)) {
+                        return ImageIO.read(in); // Found inside project.jar
+                    }
+                }
+            }
+        }
+        File file = new File(name);
+        return file.isFile() ? ImageIO.read(file) : null; // Loose file next to the game
+    }
+
+    // Copy an image into the pixel format of the default screen (no-op when headless)
+    private static BufferedImage toCompatibleImage(BufferedImage image) {
+        if (GraphicsEnvironment.isHeadless()) {
+            return image;
+        }
+        GraphicsConfiguration gc = GraphicsEnvironment.getLocalGraphicsEnvironment()
+                .getDefaultScreenDevice().getDefaultConfiguration();
+        if (image.getColorModel().equals(gc.getColorModel(image.getTransparency()))) {
+            return image; // Already compatible
+        }
+        BufferedImage compatible = gc.createCompatibleImage(image.getWidth(), image.getHeight(), image.getTransparency());
+        Graphics2D g = compatible.createGraphics();
+        try {
+            g.drawImage(image, 0, 0, null);
+        } finally {
+            g.dispose();
+        }
+        return compatible;
+    }
+
+    // Assets that could not be found
+    public List<String> getMissingAssets() {
+        synchronized (missing) {
+            return new ArrayList<>(missing);
+        }
+    }
+
+    // Total wall time spent preloading, in milliseconds
+    public double getPreloadMillis() {
+        return preloadNanos / 1_000_000.0;
+    }
+
+    public long getCacheHits() {
+        return hits.get();
+    }
+
+    public long getCacheMisses() {
+        return misses.get();
+    }
+
+    // Human-readable load-time report
+    public String getLoadReport() {
+        StringBuilder report = new StringBuilder();
+        report.append(String.format("Assets preloaded in %.1f ms (%d cached, %d missing, %d hits, %d misses)%n",
+                getPreloadMillis(), images.size(), missing.size(), hits.get(), misses.get()));
+        for (Map.Entry<String, Long> entry : new TreeMap<>(loadNanos).entrySet()) {
+            report.append(String.format("  %-16s %7.1f ms%n", entry.getKey(), entry.getValue() / 1_000_000.0));
+        }
+        return report.toString();
+    }
+}
@@ -0,0 +1,107 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.Callable;
+import java.util.function.BooleanSupplier;
+import java.util.function.IntSupplier;
+
+// Entry points for the JMH suite in bench/. JMH benchmarks must live in a named package, which cannot
+// refer to the game's default-package classes, so they look these factories up once by reflection and
+// then only call the returned JDK functional interfaces in the measured code.
+public final class BenchmarkTargets {
+    private static final String[] DIFFICULTIES = {"Easy", "Medium", "Hard"};
+
+    private BenchmarkTargets() {
+    }
+
+    // One full tick with a perfect scripted player; finished games restart in place
+    public static IntSupplier simulationTick(String difficulty) {
+        GameSimulation simulation = new GameSimulation(difficulty, 60);
+        InputScript script = InputScript.perfect();
+        return () -> {
+            if (simulation.isOver()) {
+                simulation.restart();
+            }
+            script.beforeTick(simulation);
+            simulation.tick();
+            return simulation.getScore();
+        };
+    }
+
+    // Spawning one tile into a free lane; the board is cleared once every lane is taken
+    public static IntSupplier simulationSpawn(String difficulty) {
+        GameSimulation simulation = new GameSimulation(difficulty, 60);
+        return () -> {
+            if (simulation.getLanes().getAvailableMask() == 0) {
+                simulation.restart(); // Cheap reset that keeps the pooled storage
+            }
+            simulation.addNewTile();
+            return simulation.getTiles().size();
+        };
+    }
+
+    // Resolving a correct key press against the oldest tile, plus one respawn per press
+    public static BooleanSupplier simulationResolveKey(String difficulty) {
+        GameSimulation simulation = new GameSimulation(difficulty, 60);
+        return () -> {
+            if (simulation.getTiles().isEmpty()) {
+                simulation.addNewTile();
+            }
+            return simulation.pressKey(simulation.peekExpectedKey()) != null;
+        };
+    }
+
+    // Fill a score directory with the given number of entries spread over the difficulties, as a snapshot
+    public static void seedScores(Path directory, int entries) throws IOException {
+        try (ScoreStore seed = new ScoreStore(directory, entries, Integer.MAX_VALUE)) {
+            for (int i = 0; i < entries; i++) {
+                seed.add(DIFFICULTIES[i % DIFFICULTIES.length], "player" + i, i); // Fill every board
+            }
+            seed.flush(); // One log write for the seed data
+            seed.compact(); // Start from a snapshot
+        }
+    }
+
+    // Open a score store that keeps the given number of entries per difficulty and never compacts on its own
+    public static Closeable openScores(Path directory, int topN) throws IOException {
+        return new ScoreStore(directory, topN, Integer.MAX_VALUE);
+    }
+
+    // Startup cost: read the snapshot and replay the log
+    public static Callable<Object> scoreLoad(Path directory, int topN) {
+        return () -> {
+            try (ScoreStore loaded = new ScoreStore(directory, topN, Integer.MAX_VALUE)) {
+                return loaded.getBoard("Hard").size();
+            }
+        };
+    }
+
+    // Durable save of a single score (one append and one fsync)
+    public static Callable<Object> scoreSaveDurable(Closeable store, int firstScore) {
+        ScoreStore scores = (ScoreStore) store;
+        int[] next = {firstScore}; // Increasing scores so every save makes the board
+        return () -> scores.record("Hard", "bench", next[0]++);
+    }
+
+    // In-memory save as done by the shared ScoreManager (the background writer flushes later)
+    public static Callable<Object> scoreSaveQueued(Closeable store, int firstScore) {
+        ScoreStore scores = (ScoreStore) store;
+        int[] next = {firstScore};
+        return () -> scores.add("Hard", "bench", next[0]++);
+    }
+
+    // Write everything queued by scoreSaveQueued
+    public static Callable<Object> scoreFlush(Closeable store) {
+        ScoreStore scores = (ScoreStore) store;
+        return () -> {
+            scores.flush();
+            return null;
+        };
+    }
+
+    // Reading a whole leaderboard
+    public static Callable<Object> scoreTop(Closeable store) {
+        ScoreStore scores = (ScoreStore) store;
+        return () -> scores.getBoard("Hard").getTop().size();
+    }
+}
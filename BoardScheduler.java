@@ -0,0 +1,84 @@
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Runs many GameBoards on one fixed pool of worker threads instead of a thread (and timer) per board.
+// Real-time boards are ticked at their tick rate; a fixed-rate task never overlaps itself, so each simulation
+// still only sees one thread at a time. Unpaced boards play a whole game as one task, as fast as possible.
+public class BoardScheduler implements AutoCloseable {
+    private final ScheduledThreadPoolExecutor executor; // Shared workers and timer
+    private final List<GameBoard> boards = new CopyOnWriteArrayList<>(); // Every board started so far
+
+    // Constructor for BoardScheduler
+    public BoardScheduler(int workers) {
+        AtomicInteger counter = new AtomicInteger();
+        ThreadFactory factory = task -> {
+            Thread thread = new Thread(task, "board-worker-" + counter.incrementAndGet());
+            thread.setDaemon(true); // Don't keep the JVM alive after the window closes
+            return thread;
+        };
+        executor = new ScheduledThreadPoolExecutor(Math.max(1, workers), factory);
+        executor.setRemoveOnCancelPolicy(true); // Finished boards leave the queue right away
+    }
+
+    // One worker per core
+    public BoardScheduler() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    // Tick a board in real time at its simulation's tick rate until its game ends
+    public void start(GameBoard board) {
+        long tickNanos = board.getTickNanos();
+        boards.add(board);
+        board.startClock(System.nanoTime());
+        ScheduledFuture<?> task = executor.scheduleAtFixedRate(() -> {
+            try {
+                board.tick();
+            } catch (RuntimeException e) {
+                board.getFinished().completeExceptionally(e); // Report the failure instead of silently stopping
+                throw e;
+            }
+        }, tickNanos, tickNanos, TimeUnit.NANOSECONDS);
+        board.getFinished().whenComplete((b, e) -> task.cancel(false)); // Stop ticking once the game is over
+    }
+
+    // Play a board's game to the end as fast as a worker can (bots only)
+    public void startUnpaced(GameBoard board) {
+        boards.add(board);
+        board.startClock(System.nanoTime());
+        executor.execute(() -> {
+            try {
+                board.runToEnd();
+            } catch (RuntimeException e) {
+                board.getFinished().completeExceptionally(e);
+            }
+        });
+    }
+
+    // Future completed when every board started so far has finished
+    public CompletableFuture<Void> allFinished() {
+        return CompletableFuture.allOf(boards.stream().map(GameBoard::getFinished).toArray(CompletableFuture[]::new));
+    }
+
+    public List<GameBoard> getBoards() {
+        return boards;
+    }
+
+    public int getWorkers() {
+        return executor.getCorePoolSize();
+    }
+
+    // Stop every board and the workers
+    @Override
+    public void close() {
+        executor.shutdownNow();
+        for (GameBoard board : boards) {
+            board.abort(); // Anyone waiting for the results is released
+        }
+    }
+}
@@ -0,0 +1,92 @@
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Computer player that reads the expected-key queue and the tile positions like a person would: it plans a press for
+// the tile the game expects next, aimed at the moment the tile reaches the judgement line, then adds its reaction
+// latency and some random timing spread. With accuracy below 1 it sometimes presses a wrong key (which ends the game).
+// Works wherever an InputScript does: TileGame (-Dtilegame.bot), GameBoard and HeadlessRunner.
+public class BotPlayer implements InputScript {
+    private final double accuracy; // Chance of pressing the right key
+    private final long reactionNanos; // Average delay between the tile reaching the line and the key going down
+    private final long jitterNanos; // Standard deviation of the press time
+    private final Random random; // Seeded, so a bot plays a seeded game the same way every time
+    private int targetSerial = -1; // Serial of the tile the planned press is for, -1 when nothing is planned
+    private long offsetNanos; // Reaction plus jitter for the planned press
+    private char plannedKey; // Key the planned press will use (a wrong one when the bot slips)
+    private boolean pressed; // The planned press was made
+    private long presses = 0; // Presses made
+    private long slips = 0; // Wrong keys pressed on purpose
+
+    // Constructor for BotPlayer
+    public BotPlayer(double accuracy, long reactionNanos, long jitterNanos, long seed) {
+        this.accuracy = Math.max(0, Math.min(1, accuracy));
+        this.reactionNanos = reactionNanos;
+        this.jitterNanos = Math.max(0, jitterNanos);
+        this.random = new Random(seed);
+    }
+
+    // Parse "accuracy,reactionMs,jitterMs" (missing values: 1.0, 0, 0), e.g. "0.99,20,15"
+    public static BotPlayer parse(String spec, long seed) {
+        String[] parts = spec.split(",");
+        double accuracy = parts.length > 0 && !parts[0].trim().isEmpty() ? Double.parseDouble(parts[0].trim()) : 1.0;
+        long reaction = parts.length > 1 ? Long.parseLong(parts[1].trim()) : 0;
+        long jitter = parts.length > 2 ? Long.parseLong(parts[2].trim()) : 0;
+        return new BotPlayer(accuracy, TimeUnit.MILLISECONDS.toNanos(reaction), TimeUnit.MILLISECONDS.toNanos(jitter), seed);
+    }
+
+    @Override
+    public void beforeTick(GameSimulation simulation) {
+        char expected = simulation.peekExpectedKey();
+        if (expected == 0) {
+            return; // Nothing to press
+        }
+        TileStore tiles = simulation.getTiles();
+        int i = simulation.indexOfKeyTile(expected); // The tile the game will judge
+        if (i < 0) {
+            return;
+        }
+        int serial = tiles.getSerial(i);
+        if (serial != targetSerial) {
+            plan(serial, expected); // A new tile is up next
+        }
+        if (pressed) {
+            return; // Already pressed for this tile
+        }
+        // When the tile reaches the line at its current speed (the speed ramps slowly, so re-aim every tick)
+        long now = simulation.getElapsedNanos();
+        long hitAt = now + (long) ((simulation.getJudgementY() - tiles.getY(i)) / simulation.getSpeed() * 1e9);
+        long pressAt = hitAt + offsetNanos;
+        if (pressAt < now + simulation.getTickNanos()) {
+            simulation.pressKey(plannedKey, now - pressAt); // Key down during this tick (or already late)
+            pressed = true;
+            presses++;
+        }
+    }
+
+    // Decide when and what to press for the next tile
+    private void plan(int serial, char expected) {
+        targetSerial = serial;
+        pressed = false;
+        offsetNanos = reactionNanos + (long) (random.nextGaussian() * jitterNanos);
+        plannedKey = expected;
+        if (random.nextDouble() >= accuracy) {
+            String keys = GameBoard.LANE_KEYS.replace(String.valueOf(expected), ""); // Any key but the right one
+            plannedKey = keys.charAt(random.nextInt(keys.length()));
+            slips++;
+        }
+    }
+
+    public long getPresses() {
+        return presses;
+    }
+
+    public long getSlips() {
+        return slips;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("bot accuracy %.3f, reaction %d ms, jitter %d ms", accuracy,
+                TimeUnit.NANOSECONDS.toMillis(reactionNanos), TimeUnit.NANOSECONDS.toMillis(jitterNanos));
+    }
+}
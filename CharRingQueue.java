@@ -0,0 +1,52 @@
+// Fixed-capacity FIFO queue of primitive chars (no boxing, no allocation after construction)
+public class CharRingQueue {
+    private final char[] items; // Ring buffer storage
+    private int head = 0; // Index of the oldest item
+    private int size = 0; // Number of queued items
+
+    // Constructor for CharRingQueue
+    public CharRingQueue(int capacity) {
+        this.items = new char[capacity]; // Allocate storage once
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    // Add an item at the tail; returns false if the queue is full
+    public boolean offer(char c) {
+        if (size == items.length) {
+            return false; // Queue is full
+        }
+        int tail = head + size;
+        items[tail >= items.length ? tail - items.length : tail] = c; // Wrap around without a modulo
+        size++;
+        return true;
+    }
+
+    // Return the oldest item without removing it
+    public char peek() {
+        if (size == 0) {
+            throw new IllegalStateException("Queue is empty");
+        }
+        return items[head];
+    }
+
+    // Remove and return the oldest item
+    public char poll() {
+        char c = peek();
+        head = head + 1 == items.length ? 0 : head + 1; // Advance the head
+        size--;
+        return c;
+    }
+
+    // Remove all items
+    public void clear() {
+        head = 0;
+        size = 0;
+    }
+}
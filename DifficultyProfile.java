@@ -0,0 +1,241 @@
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+// One difficulty setting: spawn interval, fall speed and bonus rate ramps over time, plus lane and pool limits.
+// Profiles are loaded once from difficulty.properties (see that file for the settings).
+public final class DifficultyProfile {
+    private static final String CONFIG_FILE = "difficulty.properties"; // Default config (working directory or classpath)
+
+    private final String name;
+    private final long spawnIntervalMillis; // Spawn interval at the start of a game
+    private final long spawnIntervalEndMillis; // Spawn interval once the ramp is over
+    private final int spawnCount; // Tiles spawned at once
+    private final double speed; // Fall speed at the start in pixels per second
+    private final double speedEnd; // Fall speed once the ramp is over
+    private final double bonusRate; // Bonus chance at the start
+    private final double bonusRateEnd; // Bonus chance once the ramp is over
+    private final int tilesPerLane; // Tiles a lane may hold at once
+    private final int maxTiles; // Size of the tile pool
+    private final boolean randomKeys; // Keys are not tied to their column
+    private final boolean missEndsGame; // A missed tile ends the game
+    private final int gameSeconds; // Length of a game
+    private final int rampSeconds; // Time taken to go from the start to the end values
+
+    // Holder idiom: the config file is read on first use
+    private static class Holder {
+        static final Map<String, DifficultyProfile> PROFILES = load();
+    }
+
+    // Read one profile from the config, falling back to the defaults for missing settings
+    private DifficultyProfile(String name, Properties config) {
+        this.name = name;
+        this.spawnIntervalMillis = Math.max(1, getLong(config, "spawnInterval", 1000));
+        this.spawnIntervalEndMillis = Math.max(1, getLong(config, "spawnIntervalEnd", spawnIntervalMillis));
+        this.spawnCount = (int) Math.max(1, getLong(config, "spawnCount", 1));
+        this.speed = getDouble(config, "speed", 300);
+        this.speedEnd = getDouble(config, "speedEnd", speed);
+        this.bonusRate = getDouble(config, "bonusRate", 0.2);
+        this.bonusRateEnd = getDouble(config, "bonusRateEnd", bonusRate);
+        this.tilesPerLane = (int) Math.max(1, getLong(config, "tilesPerLane", 1));
+        this.maxTiles = (int) Math.max(1, getLong(config, "maxTiles", 64));
+        this.randomKeys = Boolean.parseBoolean(get(config, "randomKeys", "false"));
+        this.missEndsGame = Boolean.parseBoolean(get(config, "missEndsGame", "true"));
+        this.gameSeconds = (int) Math.max(1, getLong(config, "gameSeconds", 120));
+        this.rampSeconds = (int) Math.max(1, getLong(config, "rampSeconds", gameSeconds));
+    }
+
+    // Copy of a profile with a different game length; the ramps are squeezed or stretched to match
+    private DifficultyProfile(DifficultyProfile other, int gameSeconds) {
+        this.name = other.name;
+        this.spawnIntervalMillis = other.spawnIntervalMillis;
+        this.spawnIntervalEndMillis = other.spawnIntervalEndMillis;
+        this.spawnCount = other.spawnCount;
+        this.speed = other.speed;
+        this.speedEnd = other.speedEnd;
+        this.bonusRate = other.bonusRate;
+        this.bonusRateEnd = other.bonusRateEnd;
+        this.tilesPerLane = other.tilesPerLane;
+        this.maxTiles = other.maxTiles;
+        this.randomKeys = other.randomKeys;
+        this.missEndsGame = other.missEndsGame;
+        this.gameSeconds = Math.max(1, gameSeconds);
+        this.rampSeconds = (int) Math.max(1, (long) other.rampSeconds * this.gameSeconds / other.gameSeconds);
+    }
+
+    private String get(Properties config, String key, String fallback) {
+        return config.getProperty(name + "." + key, fallback).trim();
+    }
+
+    private long getLong(Properties config, String key, long fallback) {
+        String value = get(config, key, Long.toString(fallback));
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            System.err.println("Bad value for " + name + "." + key + ": " + value); // Keep the default
+            return fallback;
+        }
+    }
+
+    private double getDouble(Properties config, String key, double fallback) {
+        String value = get(config, key, Double.toString(fallback));
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            System.err.println("Bad value for " + name + "." + key + ": " + value); // Keep the default
+            return fallback;
+        }
+    }
+
+    // Profile with the given name; unknown names get the first profile (Easy in the shipped config)
+    public static DifficultyProfile get(String name) {
+        Map<String, DifficultyProfile> profiles = Holder.PROFILES;
+        DifficultyProfile profile = profiles.get(name);
+        return profile != null ? profile : profiles.values().iterator().next();
+    }
+
+    // Profile names in menu order
+    public static List<String> getNames() {
+        return Collections.unmodifiableList(new ArrayList<>(Holder.PROFILES.keySet()));
+    }
+
+    // Build every profile listed in a config
+    public static Map<String, DifficultyProfile> fromProperties(Properties config) {
+        Map<String, DifficultyProfile> profiles = new LinkedHashMap<>();
+        for (String name : config.getProperty("profiles", "").split(",")) {
+            if (!name.trim().isEmpty()) {
+                profiles.put(name.trim(), new DifficultyProfile(name.trim(), config));
+            }
+        }
+        return profiles;
+    }
+
+    // Every setting of this profile as config entries ("profiles" plus "<name>.<setting>"), so fromProperties can
+    // rebuild exactly this profile later, even after the config file changed or the game length was overridden
+    public Properties toProperties() {
+        Properties config = new Properties();
+        config.setProperty("profiles", name);
+        config.setProperty(name + ".spawnInterval", Long.toString(spawnIntervalMillis));
+        config.setProperty(name + ".spawnIntervalEnd", Long.toString(spawnIntervalEndMillis));
+        config.setProperty(name + ".spawnCount", Integer.toString(spawnCount));
+        config.setProperty(name + ".speed", Double.toString(speed));
+        config.setProperty(name + ".speedEnd", Double.toString(speedEnd));
+        config.setProperty(name + ".bonusRate", Double.toString(bonusRate));
+        config.setProperty(name + ".bonusRateEnd", Double.toString(bonusRateEnd));
+        config.setProperty(name + ".tilesPerLane", Integer.toString(tilesPerLane));
+        config.setProperty(name + ".maxTiles", Integer.toString(maxTiles));
+        config.setProperty(name + ".randomKeys", Boolean.toString(randomKeys));
+        config.setProperty(name + ".missEndsGame", Boolean.toString(missEndsGame));
+        config.setProperty(name + ".gameSeconds", Integer.toString(gameSeconds));
+        config.setProperty(name + ".rampSeconds", Integer.toString(rampSeconds));
+        return config;
+    }
+
+    // Read the config from -Dtilegame.difficultyFile, the classpath or the working directory
+    private static Map<String, DifficultyProfile> load() {
+        Properties config = new Properties();
+        try {
+            String override = System.getProperty("tilegame.difficultyFile");
+            Path file = Paths.get(override != null ? override : CONFIG_FILE);
+            InputStream resource = override == null ? DifficultyProfile.class.getResourceAsStream("/" + CONFIG_FILE) : null;
+            if (resource != null) {
+                try (Reader reader = new InputStreamReader(resource, StandardCharsets.UTF_8)) {
+                    config.load(reader);
+                }
+            } else if (Files.exists(file)) {
+                try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                    config.load(reader);
+                }
+            }
+        } catch (IOException e) {
+            e.printStackTrace(); // Fall back to the built-in profiles below
+        }
+        Map<String, DifficultyProfile> profiles = fromProperties(config);
+        if (profiles.isEmpty()) {
+            System.err.println("No difficulty profiles found in " + CONFIG_FILE + ", using the built-in ones");
+            profiles = fromProperties(builtIn());
+        }
+        return profiles;
+    }
+
+    // The original fixed difficulties (no ramps), used when the config is missing
+    private static Properties builtIn() {
+        Properties config = new Properties();
+        config.setProperty("profiles", "Easy, Medium, Hard");
+        config.setProperty("Easy.spawnInterval", "2000");
+        config.setProperty("Medium.spawnInterval", "1000");
+        config.setProperty("Hard.spawnInterval", "600");
+        config.setProperty("Hard.randomKeys", "true");
+        return config;
+    }
+
+    // Linear ramp from start to end over rampSeconds of simulated time
+    private double ramp(double start, double end, long elapsedNanos) {
+        double progress = Math.min(1.0, elapsedNanos / (rampSeconds * 1e9));
+        return start + (end - start) * progress;
+    }
+
+    // Spawn interval in nanoseconds at the given time into the game
+    public long getSpawnIntervalNanos(long elapsedNanos) {
+        return (long) (ramp(spawnIntervalMillis, spawnIntervalEndMillis, elapsedNanos) * 1_000_000L);
+    }
+
+    // Fall speed in pixels per second at the given time into the game
+    public double getSpeed(long elapsedNanos) {
+        return ramp(speed, speedEnd, elapsedNanos);
+    }
+
+    // Bonus chance at the given time into the game
+    public double getBonusRate(long elapsedNanos) {
+        return ramp(bonusRate, bonusRateEnd, elapsedNanos);
+    }
+
+    // Same profile with a shorter or longer game (soak tests play many short games)
+    public DifficultyProfile withGameSeconds(int seconds) {
+        return seconds == gameSeconds ? this : new DifficultyProfile(this, seconds);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getSpawnCount() {
+        return spawnCount;
+    }
+
+    public int getTilesPerLane() {
+        return tilesPerLane;
+    }
+
+    public int getMaxTiles() {
+        return maxTiles;
+    }
+
+    public boolean isRandomKeys() {
+        return randomKeys;
+    }
+
+    public boolean isMissEndsGame() {
+        return missEndsGame;
+    }
+
+    public int getGameSeconds() {
+        return gameSeconds;
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
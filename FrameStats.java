@@ -0,0 +1,79 @@
+import java.util.Arrays; // Import Arrays for sorting the sample window
+
+// Rolling frame-time statistics for the game loop (average, p99 and dropped ticks)
+public class FrameStats {
+    private final long[] samples; // Ring buffer of recent frame times in nanoseconds
+    private final long[] sortBuffer; // Scratch array used to compute percentiles
+    private int count = 0; // Number of valid samples in the ring buffer
+    private int next = 0; // Index where the next sample will be written
+    private long droppedTicks = 0; // Simulation ticks skipped because the loop fell too far behind
+    private long totalFrames = 0; // Total number of frames recorded since creation
+
+    // Constructor for FrameStats
+    public FrameStats(int window) {
+        this.samples = new long[window]; // Allocate the sample window
+        this.sortBuffer = new long[window]; // Allocate the scratch array once
+    }
+
+    // Record the duration of one rendered frame
+    public synchronized void recordFrame(long frameNanos) {
+        samples[next] = frameNanos; // Store the sample
+        next = (next + 1) % samples.length; // Advance the write index
+        if (count < samples.length) {
+            count++; // Grow until the window is full
+        }
+        totalFrames++; // Count the frame
+    }
+
+    // Record simulation ticks that were skipped to catch up
+    public synchronized void addDroppedTicks(long ticks) {
+        droppedTicks += ticks; // Accumulate dropped ticks
+    }
+
+    // Average frame time in milliseconds over the window
+    public synchronized double getAverageMillis() {
+        if (count == 0) {
+            return 0; // No samples yet
+        }
+        long sum = 0; // Sum of all samples
+        for (int i = 0; i < count; i++) {
+            sum += samples[i]; // Add each sample
+        }
+        return sum / (double) count / 1_000_000.0; // Convert the average to milliseconds
+    }
+
+    // 99th percentile frame time in milliseconds over the window
+    public synchronized double getP99Millis() {
+        if (count == 0) {
+            return 0; // No samples yet
+        }
+        System.arraycopy(samples, 0, sortBuffer, 0, count); // Copy the samples so the ring is untouched
+        Arrays.sort(sortBuffer, 0, count); // Sort the copied samples
+        int index = (int) Math.ceil(count * 0.99) - 1; // Index of the 99th percentile sample
+        return sortBuffer[Math.max(index, 0)] / 1_000_000.0; // Convert to milliseconds
+    }
+
+    // Frames per second derived from the average frame time
+    public double getFps() {
+        double avg = getAverageMillis(); // Average frame time
+        return avg > 0 ? 1000.0 / avg : 0; // Avoid dividing by zero
+    }
+
+    // Number of simulation ticks skipped since creation
+    public synchronized long getDroppedTicks() {
+        return droppedTicks;
+    }
+
+    // Number of frames recorded since creation
+    public synchronized long getTotalFrames() {
+        return totalFrames;
+    }
+
+    // Clear all statistics
+    public synchronized void reset() {
+        count = 0; // Forget all samples
+        next = 0; // Restart at the beginning of the ring
+        droppedTicks = 0; // Reset dropped ticks
+        totalFrames = 0; // Reset frame counter
+    }
+}
@@ -0,0 +1,156 @@
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+// One board of a multi-board game: its own simulation, key mapping, input queue and published snapshots.
+// Ticked by a BoardScheduler worker (never two at once); key presses come from the EDT, bots play through an InputScript.
+public class GameBoard {
+    public static final String LANE_KEYS = "asdfb"; // Keys the simulation knows: four columns, then bonus
+
+    private final String name; // Shown above the board and in the results
+    private final GameSimulation simulation; // Only touched by the tick in progress
+    private final String keyMap; // Physical keys for LANE_KEYS, in the same order (empty for bots)
+    private final InputScript bot; // Scripted player, or null for a human board
+    private final InputRing input = new InputRing(64); // Timestamped key presses from the EDT
+    private final SnapshotExchange snapshots; // State handed to the renderer
+    private final CompletableFuture<GameBoard> finished = new CompletableFuture<>(); // Completed when the game ends
+    private long nextTickStart; // Wall time (nanoTime) the next tick begins at
+    private volatile long lastTickNanos; // When the last tick ran, for interpolation
+    private volatile long maxLagNanos; // Worst delay of a tick behind its due time
+    private volatile GameSimulation.Judgement lastJudgement; // Shown next to the score
+
+    // Human board: keyMap lists the physical keys for a, s, d, f and the bonus key
+    public GameBoard(String name, GameSimulation simulation, String keyMap) {
+        this(name, simulation, keyMap, null);
+    }
+
+    // Bot board driven by a script
+    public GameBoard(String name, GameSimulation simulation, InputScript bot) {
+        this(name, simulation, "", bot);
+    }
+
+    private GameBoard(String name, GameSimulation simulation, String keyMap, InputScript bot) {
+        if (keyMap.length() != 0 && keyMap.length() != LANE_KEYS.length()) {
+            throw new IllegalArgumentException("Key map must have " + LANE_KEYS.length() + " keys: " + keyMap);
+        }
+        this.name = name;
+        this.simulation = simulation;
+        this.keyMap = keyMap;
+        this.bot = bot;
+        this.snapshots = new SnapshotExchange(simulation.getTileCapacity());
+        simulation.copyTo(snapshots.getBackBuffer()); // Something to draw before the first tick
+        snapshots.publish();
+    }
+
+    // Queue a key press if it belongs to this board (EDT); returns true if it did
+    public boolean keyPressed(char physicalKey, long nowNanos) {
+        int lane = keyMap.indexOf(Character.toLowerCase(physicalKey));
+        if (lane < 0) {
+            return false; // Another player's key
+        }
+        input.offer(LANE_KEYS.charAt(lane), nowNanos, 0);
+        return true;
+    }
+
+    // Set the wall time of the first tick (before the board is scheduled)
+    void startClock(long nowNanos) {
+        nextTickStart = nowNanos;
+    }
+
+    // Run one tick at its due wall time (worker thread); returns false once the game is over
+    boolean tick() {
+        long tickStart = nextTickStart;
+        long tickEnd = tickStart + simulation.getTickNanos();
+        nextTickStart = tickEnd;
+        long now = System.nanoTime();
+        if (now - tickEnd > maxLagNanos) {
+            maxLagNanos = now - tickEnd; // The scheduler fell behind this board
+        }
+        while (!input.isEmpty() && input.peekTime() <= tickEnd) {
+            GameSimulation.Judgement judgement = simulation.pressKey(input.peekKey(), tickStart - input.peekTime());
+            input.poll();
+            if (judgement != null) {
+                lastJudgement = judgement;
+            }
+        }
+        if (bot != null) {
+            bot.beforeTick(simulation); // Scripted presses for this tick
+        }
+        simulation.tick();
+        simulation.copyTo(snapshots.getBackBuffer());
+        snapshots.publish();
+        lastTickNanos = now;
+        if (simulation.isOver()) {
+            finished.complete(this);
+            return false;
+        }
+        return true;
+    }
+
+    // Play the whole game without waiting between ticks (bots only)
+    void runToEnd() {
+        while (tick()) {
+            // Keep ticking
+        }
+    }
+
+    // Give up on the game, e.g. when the window is closed
+    void abort() {
+        finished.complete(this);
+    }
+
+    // Fraction of a tick since the last one, for smooth drawing (renderer)
+    public double getInterpolation(long nowNanos) {
+        double alpha = (nowNanos - lastTickNanos) / (double) simulation.getTickNanos();
+        return Math.max(0, Math.min(1, alpha));
+    }
+
+    // Newest published state (renderer thread only)
+    public GameSnapshot acquireSnapshot() {
+        return snapshots.acquire();
+    }
+
+    public CompletableFuture<GameBoard> getFinished() {
+        return finished;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public boolean isBot() {
+        return bot != null;
+    }
+
+    public String getKeyMap() {
+        return keyMap;
+    }
+
+    // Final results; only meaningful once getFinished() is done
+    public int getScore() {
+        return simulation.getScore();
+    }
+
+    public long getTickCount() {
+        return simulation.getTickCount();
+    }
+
+    public GameSimulation.EndReason getEndReason() {
+        return simulation.getEndReason();
+    }
+
+    public long getTickNanos() {
+        return simulation.getTickNanos();
+    }
+
+    public int getTileCapacity() {
+        return simulation.getTileCapacity();
+    }
+
+    public GameSimulation.Judgement getLastJudgement() {
+        return lastJudgement;
+    }
+
+    public double getMaxLagMillis() {
+        return maxLagNanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+}
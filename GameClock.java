@@ -0,0 +1,99 @@
+// Simulated clock that owns every time-based game event (countdown, tile spawning, difficulty ramps).
+// It is advanced by the simulation tick, so it needs no thread of its own, and each event is due at an absolute
+// time (start + n * period), so processing overhead never makes it drift. Not thread-safe, like GameSimulation.
+public class GameClock {
+    private static final int MAX_EVENTS = 8; // Enough for every event the game schedules
+    private final long[] firstDelay = new long[MAX_EVENTS]; // Time of the first firing, used by reset()
+    private final long[] initialPeriod = new long[MAX_EVENTS]; // Period given to schedule(), used by reset()
+    private final long[] period = new long[MAX_EVENTS]; // Current period in nanoseconds
+    private final long[] nextAt = new long[MAX_EVENTS]; // Clock time the event is due next
+    private final Runnable[] actions = new Runnable[MAX_EVENTS]; // What to run when the event is due
+    private int count = 0; // Number of scheduled events
+    private long now = 0; // Clock time in nanoseconds
+    private boolean paused = false; // Paused clocks ignore advance()
+    private boolean stopped = false; // Stopped clocks fire nothing until reset()
+
+    // Run action every periodNanos, the first time after firstDelayNanos; returns the event id
+    public int schedule(long firstDelayNanos, long periodNanos, Runnable action) {
+        if (count == MAX_EVENTS) {
+            throw new IllegalStateException("Too many clock events");
+        }
+        if (periodNanos <= 0) {
+            throw new IllegalArgumentException("Period must be positive");
+        }
+        int id = count++;
+        firstDelay[id] = firstDelayNanos;
+        initialPeriod[id] = periodNanos;
+        period[id] = periodNanos;
+        nextAt[id] = now + firstDelayNanos;
+        actions[id] = action;
+        return id;
+    }
+
+    // Change an event's period; the already scheduled firing keeps its time, later ones use the new period
+    public void setPeriod(int id, long periodNanos) {
+        if (periodNanos <= 0) {
+            throw new IllegalArgumentException("Period must be positive");
+        }
+        period[id] = periodNanos;
+    }
+
+    public long getPeriod(int id) {
+        return period[id];
+    }
+
+    // Move the clock forward and run every event that became due, in time order (ties in schedule order)
+    public void advance(long nanos) {
+        if (paused || stopped) {
+            return;
+        }
+        now += nanos;
+        while (!stopped) {
+            int due = -1;
+            for (int i = 0; i < count; i++) {
+                if (nextAt[i] <= now && (due < 0 || nextAt[i] < nextAt[due])) {
+                    due = i; // Earliest due event
+                }
+            }
+            if (due < 0) {
+                return; // Nothing else is due
+            }
+            nextAt[due] += period[due]; // Absolute schedule: no drift
+            actions[due].run();
+        }
+    }
+
+    // Stop firing events (the game ended); reset() starts the clock again
+    public void stop() {
+        stopped = true;
+    }
+
+    // Freeze the clock: advance() does nothing until the clock is resumed
+    public void setPaused(boolean paused) {
+        this.paused = paused;
+    }
+
+    public boolean isPaused() {
+        return paused;
+    }
+
+    public boolean isStopped() {
+        return stopped;
+    }
+
+    // Back to time zero with every event at its original schedule and period
+    public void reset() {
+        now = 0;
+        for (int i = 0; i < count; i++) {
+            period[i] = initialPeriod[i];
+            nextAt[i] = firstDelay[i];
+        }
+        paused = false;
+        stopped = false;
+    }
+
+    // Clock time in nanoseconds since the last reset, excluding paused time
+    public long getTime() {
+        return now;
+    }
+}
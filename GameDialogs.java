@@ -0,0 +1,26 @@
+import java.awt.Component;
+import javax.swing.JOptionPane;
+
+// Questions TileGame asks when a game ends. The Swing version shows option panes; the soak test answers by script.
+public interface GameDialogs {
+
+    // Ask for the player's name; null or empty means the score is not saved
+    String askName(Component parent, String message, String title);
+
+    // Ask whether to play again
+    boolean askRestart(Component parent);
+
+    // Option panes, as the game has always shown them
+    GameDialogs SWING = new GameDialogs() {
+        @Override
+        public String askName(Component parent, String message, String title) {
+            return JOptionPane.showInputDialog(parent, message, title, JOptionPane.QUESTION_MESSAGE);
+        }
+
+        @Override
+        public boolean askRestart(Component parent) {
+            return JOptionPane.showConfirmDialog(parent, "Would you like to restart?", "Game Over", JOptionPane.YES_NO_OPTION)
+                    == JOptionPane.YES_OPTION;
+        }
+    };
+}
@@ -0,0 +1,103 @@
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+// JDK Flight Recorder events for the game loop. They cost next to nothing unless a recording is running, e.g.
+//   java -XX:StartFlightRecording=filename=game.jfr,settings=profile MainMenu
+// and show up under "Tile Game" in JDK Mission Control (or: jfr print --categories "Tile Game" game.jfr).
+public final class GameEvents {
+
+    private GameEvents() {
+    }
+
+    @Name("tilegame.Frame")
+    @Label("Frame")
+    @Category("Tile Game")
+    @Description("One pass of the game loop: ticks run, frame rendered")
+    public static class FrameEvent extends Event {
+        @Label("Ticks")
+        public int ticks; // Simulation ticks run in this frame
+
+        @Label("Dropped Ticks")
+        public long droppedTicks; // Ticks given up on in this frame
+
+        @Label("Tiles")
+        public int tiles; // Tiles alive after the ticks
+    }
+
+    @Name("tilegame.Tick")
+    @Label("Simulation Tick")
+    @Category("Tile Game")
+    @Description("One fixed simulation tick, including the input judged before it")
+    public static class TickEvent extends Event {
+        @Label("Tick")
+        public long tick; // Tick number
+
+        @Label("Tiles")
+        public int tiles; // Tiles alive after the tick
+
+        @Label("Inputs")
+        public int inputs; // Key presses judged in this tick
+    }
+
+    @Name("tilegame.Paint")
+    @Label("Paint")
+    @Category("Tile Game")
+    @Description("Drawing one frame, from the active renderer or Swing's paintComponent")
+    public static class PaintEvent extends Event {
+        @Label("Active")
+        @Description("Drawn by the game thread through a BufferStrategy")
+        public boolean active;
+
+        @Label("Full Redraw")
+        public boolean fullRedraw; // Whole board composed instead of dirty regions
+
+        @Label("Composed Pixels")
+        public long pixels; // Pixels composed before the final blit
+    }
+
+    @Name("tilegame.Input")
+    @Label("Key Judged")
+    @Category("Tile Game")
+    @Description("A key press reaching the simulation")
+    public static class InputEvent extends Event {
+        @Label("Key")
+        public char key;
+
+        @Label("Judgement")
+        public String judgement; // PERFECT, GOOD, MISS or NONE
+
+        @Label("Latency")
+        @Timespan(Timespan.NANOSECONDS)
+        public long latency; // Key down to judgement
+
+        @Label("Timing Error")
+        @Timespan(Timespan.NANOSECONDS)
+        public long timingError; // Negative means early
+    }
+
+    @Name("tilegame.GameOver")
+    @Label("Game Over")
+    @Category("Tile Game")
+    public static class GameOverEvent extends Event {
+        @Label("Difficulty")
+        public String difficulty;
+
+        @Label("Score")
+        public int score;
+
+        @Label("End Reason")
+        public String endReason;
+
+        @Label("Ticks")
+        public long ticks;
+
+        @Label("Simulation Allocation")
+        @DataAmount
+        public long allocated; // Bytes allocated by the game loop thread
+    }
+}
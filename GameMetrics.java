@@ -0,0 +1,253 @@
+import java.io.IOException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Runtime metrics for one game: histograms for frame time, tick time, repaint latency and input latency, a histogram
+// of tiles alive and a few counters. Recording never allocates; export() dumps everything as CSV and JSON at the end.
+public class GameMetrics {
+    private static final int TILE_BUCKETS = 12; // 0, 1, 2-3, 4-7, ... 1024 and up
+
+    private final LatencyHistogram frameTime = new LatencyHistogram("frame_time"); // Loop start to loop start
+    private final LatencyHistogram tickTime = new LatencyHistogram("tick_time"); // One simulation tick with its input
+    private final LatencyHistogram repaintLatency = new LatencyHistogram("repaint_latency"); // Frame requested to frame drawn
+    private final LatencyHistogram inputLatency = new LatencyHistogram("key_to_judgement"); // Listener to judgement
+    private final LatencyHistogram dispatchLatency = new LatencyHistogram("os_to_listener"); // OS event to listener (ms resolution)
+    private final long[] tileCounts = new long[TILE_BUCKETS]; // Ticks per tiles-alive bucket
+    private long tileSamples = 0; // Ticks recorded
+    private long tileSum = 0; // Tiles alive summed over all ticks
+    private int tileMax = 0; // Most tiles alive after a tick
+
+    private final long inputBudgetNanos; // Latency above this counts as over budget
+    private volatile long overBudget = 0; // Presses judged later than the budget (written by the simulation thread)
+    private final AtomicLong repaintRequestedAt = new AtomicLong(); // Oldest repaint not drawn yet, 0 if none
+    private final long startNanos = System.nanoTime(); // Start of the session
+    private final long startGcCount = AllocationCounter.getGcCount(); // Collections before the session
+    private final long startGcMillis = AllocationCounter.getGcTimeMillis();
+
+    // Constructor for GameMetrics
+    public GameMetrics(long inputBudgetNanos) {
+        this.inputBudgetNanos = inputBudgetNanos;
+    }
+
+    public void recordFrame(long nanos) {
+        frameTime.record(nanos);
+    }
+
+    // Record one simulation tick and the tiles alive after it
+    public void recordTick(long nanos, int tiles) {
+        tickTime.record(nanos);
+        synchronized (tileCounts) {
+            tileCounts[Math.min(32 - Integer.numberOfLeadingZeros(tiles), TILE_BUCKETS - 1)]++; // Power-of-two buckets
+            tileSamples++;
+            tileSum += tiles;
+            tileMax = Math.max(tileMax, tiles);
+        }
+    }
+
+    // Record a frame drawn directly (active rendering), taking nanos from start to finish
+    public void recordRepaint(long nanos) {
+        repaintLatency.record(nanos);
+    }
+
+    // Note that a Swing repaint was requested; requests coalesced by Swing keep the oldest time
+    public void repaintRequested(long now) {
+        repaintRequestedAt.compareAndSet(0, now);
+    }
+
+    // Note that Swing painted a frame, completing the pending request
+    public void repaintDone(long now) {
+        long requested = repaintRequestedAt.getAndSet(0);
+        if (requested != 0) {
+            repaintLatency.record(now - requested);
+        }
+    }
+
+    // Record one judged key press (simulation thread)
+    public void recordInput(long latencyNanos, long dispatchNanos) {
+        inputLatency.record(latencyNanos);
+        dispatchLatency.record(dispatchNanos);
+        if (latencyNanos > inputBudgetNanos) {
+            overBudget++;
+        }
+    }
+
+    public LatencyHistogram getFrameTime() {
+        return frameTime;
+    }
+
+    public LatencyHistogram getTickTime() {
+        return tickTime;
+    }
+
+    public LatencyHistogram getRepaintLatency() {
+        return repaintLatency;
+    }
+
+    public LatencyHistogram getInputLatency() {
+        return inputLatency;
+    }
+
+    public long getInputBudgetNanos() {
+        return inputBudgetNanos;
+    }
+
+    public long getOverBudget() {
+        return overBudget;
+    }
+
+    // Average tiles alive per tick
+    public double getAverageTiles() {
+        synchronized (tileCounts) {
+            return tileSamples == 0 ? 0 : tileSum / (double) tileSamples;
+        }
+    }
+
+    public int getMaxTiles() {
+        synchronized (tileCounts) {
+            return tileMax;
+        }
+    }
+
+    // Garbage collections run since the session started
+    public long getGcCount() {
+        return AllocationCounter.getGcCount() - startGcCount;
+    }
+
+    public long getGcMillis() {
+        return AllocationCounter.getGcTimeMillis() - startGcMillis;
+    }
+
+    // Counters and averages for the session; extra values (score, ticks, ...) come first
+    private Map<String, Object> summary(Map<String, Object> extra) {
+        Map<String, Object> values = new LinkedHashMap<>(extra);
+        values.put("duration_ms", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+        values.put("gc_count", getGcCount());
+        values.put("gc_ms", getGcMillis());
+        values.put("input_budget_ms", TimeUnit.NANOSECONDS.toMillis(inputBudgetNanos));
+        values.put("input_over_budget", overBudget);
+        values.put("tiles_avg", Math.round(getAverageTiles() * 100) / 100.0);
+        values.put("tiles_max", getMaxTiles());
+        return values;
+    }
+
+    private LatencyHistogram[] histograms() {
+        return new LatencyHistogram[] {frameTime, tickTime, repaintLatency, inputLatency, dispatchLatency};
+    }
+
+    // Rows of session,metric,bucket,value: one per non-empty histogram bucket, then one per summary value
+    public String toCsv(String session, Map<String, Object> extra) {
+        StringBuilder csv = new StringBuilder();
+        for (LatencyHistogram histogram : histograms()) {
+            histogram.appendCsv(csv, session); // Buckets are upper bounds in microseconds
+        }
+        long[] tiles;
+        synchronized (tileCounts) {
+            tiles = Arrays.copyOf(tileCounts, TILE_BUCKETS);
+        }
+        for (int i = 0; i < TILE_BUCKETS; i++) {
+            if (tiles[i] > 0) {
+                csv.append(session).append(",tiles_alive,").append(i == TILE_BUCKETS - 1 ? "inf" : Integer.toString(1 << i))
+                        .append(',').append(tiles[i]).append(System.lineSeparator()); // Bucket is the exclusive upper bound
+            }
+        }
+        for (Map.Entry<String, Object> value : summary(extra).entrySet()) {
+            csv.append(session).append(',').append(value.getKey()).append(",,").append(value.getValue()).append(System.lineSeparator());
+        }
+        return csv.toString();
+    }
+
+    // The same data as one JSON object
+    public String toJson(String session, Map<String, Object> extra) {
+        StringBuilder json = new StringBuilder("{\"session\":").append(quote(session));
+        for (Map.Entry<String, Object> value : summary(extra).entrySet()) {
+            Object v = value.getValue();
+            json.append(',').append(quote(value.getKey())).append(':').append(v instanceof Number ? v.toString() : quote(String.valueOf(v)));
+        }
+        json.append(",\"histograms\":{");
+        LatencyHistogram[] histograms = histograms();
+        for (int i = 0; i < histograms.length; i++) {
+            json.append(i > 0 ? "," : "").append(quote(histograms[i].getName())).append(':');
+            histograms[i].appendJson(json);
+        }
+        json.append("},\"tiles_alive\":{");
+        synchronized (tileCounts) {
+            boolean first = true;
+            for (int i = 0; i < TILE_BUCKETS; i++) {
+                if (tileCounts[i] > 0) {
+                    json.append(first ? "" : ",").append(quote(i == TILE_BUCKETS - 1 ? "inf" : Integer.toString(1 << i)))
+                            .append(':').append(tileCounts[i]);
+                    first = false;
+                }
+            }
+        }
+        return json.append("}}").toString();
+    }
+
+    // Minimal JSON string quoting (the values are our own names, difficulties and end reasons)
+    private static String quote(String text) {
+        StringBuilder out = new StringBuilder("\"");
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '"' || c == '\\') {
+                out.append('\\').append(c);
+            } else if (c < 0x20) {
+                out.append(String.format(Locale.ROOT, "\\u%04x", (int) c));
+            } else {
+                out.append(c);
+            }
+        }
+        return out.append('"').toString();
+    }
+
+    // Append the session to <directory>/metrics.csv and write <directory>/<name>.json (<name>-2.json etc. if taken)
+    public void export(Path directory, String name, String session, Map<String, Object> extra) {
+        try {
+            Files.createDirectories(directory);
+            Path csvFile = directory.resolve("metrics.csv");
+            String csv = toCsv(session, extra);
+            if (!Files.exists(csvFile)) {
+                csv = "session,metric,bucket,value" + System.lineSeparator() + csv; // Header for a new file
+            }
+            Files.write(csvFile, csv.getBytes(StandardCharsets.UTF_8), StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            byte[] json = toJson(session, extra).getBytes(StandardCharsets.UTF_8);
+            Path jsonFile = directory.resolve(name + ".json");
+            for (int n = 2; ; n++) {
+                try {
+                    Files.write(jsonFile, json, StandardOpenOption.CREATE_NEW); // Never overwrite another session
+                    break;
+                } catch (FileAlreadyExistsException e) {
+                    jsonFile = directory.resolve(name + "-" + n + ".json");
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Could not write metrics to " + directory + ": " + e.getMessage());
+        }
+    }
+
+    // Short summary for the console
+    @Override
+    public String toString() {
+        StringBuilder out = new StringBuilder();
+        for (LatencyHistogram histogram : histograms()) {
+            out.append(histogram).append(System.lineSeparator());
+        }
+        return out.append(String.format(Locale.ROOT, "tiles: avg=%.1f max=%d  gc: %d runs, %d ms", getAverageTiles(), getMaxTiles(),
+                getGcCount(), getGcMillis())).toString();
+    }
+
+    // Directory for exports, null (no export) unless -Dtilegame.metricsDir names one
+    public static Path getExportDirectory() {
+        String directory = System.getProperty("tilegame.metricsDir", "");
+        return directory.isEmpty() ? null : Paths.get(directory);
+    }
+}
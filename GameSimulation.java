@@ -0,0 +1,403 @@
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Headless game core: spawning, movement, key resolution, scoring and end conditions, advanced in fixed ticks.
+// Not thread-safe: one thread owns an instance and calls pressKey() and tick() on it.
+public class GameSimulation {
+    public static final int BOARD_WIDTH = 640; // Default logical board width in pixels
+    public static final int BOARD_HEIGHT = 480; // Default logical board height in pixels
+    public static final int LANE_COUNT = 4; // Number of columns tiles fall in
+    public static final int TILE_SIZE = 150; // Width and height of a tile
+    public static final long PERFECT_WINDOW_NANOS = TimeUnit.MILLISECONDS.toNanos(60); // Max timing error for PERFECT
+    public static final long GOOD_WINDOW_NANOS = TimeUnit.MILLISECONDS.toNanos(150); // Max timing error for GOOD
+    private static final int SPAWN_Y = -100; // Vertical position new tiles start at
+
+    // Why a game ended
+    public enum EndReason {
+        NONE, // Still running
+        TIME_UP, // The countdown reached zero
+        TILE_MISSED, // A tile fell off the bottom of the board
+        WRONG_KEY // The player pressed a key that was not expected
+    }
+
+    // How well a correct key press was timed against the judgement line
+    public enum Judgement {
+        PERFECT(2), // Within PERFECT_WINDOW_NANOS of the line: double points
+        GOOD(1), // Within GOOD_WINDOW_NANOS of the line: normal points
+        MISS(0); // Right key but too early or too late: the tile is cleared without points
+
+        private final int multiplier; // Multiplier applied to the tile's points
+
+        Judgement(int multiplier) {
+            this.multiplier = multiplier;
+        }
+
+        public int getMultiplier() {
+            return multiplier;
+        }
+    }
+
+    private final TileStore tiles; // Pooled storage for active tiles
+    private final CharRingQueue order; // Queue to hold the order of keys to be pressed
+    private final LaneIndex lanes; // Per-column index of live tiles
+    private final Random random; // Single seeded random number generator reused for every spawn
+    private long seed; // Seed of the current game, recorded in replays
+    private ReplayWriter recorder; // Receives every input while a replay is recorded, or null
+    private final DifficultyProfile profile; // Spawn, speed and bonus ramps for the chosen difficulty
+    private final GameClock clock = new GameClock(); // Owns the countdown and spawning
+    private final int spawnEvent; // Clock event that spawns tiles
+    private final int tickRate; // Simulation ticks per second
+    private final long tickNanos; // Length of one tick in nanoseconds
+    private double speed; // Current fall speed in pixels per second
+    private LaneLayout layout = LaneLayout.forBoard(BOARD_WIDTH, BOARD_HEIGHT); // Lane positions and miss line, rebuilt on resize
+    private int score = 0; // Player's score
+    private int remainingTime; // Remaining time in seconds
+    private long missedCount = 0; // Tiles that fell off the board without ending the game
+    private long tickCount = 0; // Number of ticks run
+    private EndReason endReason = EndReason.NONE; // Why the game ended, NONE while running
+    private final long[] judgementCounts = new long[Judgement.values().length]; // Hits per judgement
+    private long lastTimingErrorNanos = 0; // Timing error of the last hit (negative means early)
+
+    // Constructor for GameSimulation with a random seed
+    public GameSimulation(String difficulty, int tickRate) {
+        this(difficulty, tickRate, new Random().nextLong());
+    }
+
+    // Constructor for GameSimulation; the same seed and inputs always play out the same game
+    public GameSimulation(String difficulty, int tickRate, long seed) {
+        this(DifficultyProfile.get(difficulty), tickRate, seed); // Unknown difficulties play as the first profile
+    }
+
+    // Constructor for GameSimulation with an explicit profile
+    public GameSimulation(DifficultyProfile profile, int tickRate, long seed) {
+        this.seed = seed;
+        this.random = new Random(seed);
+        this.profile = profile;
+        this.tickRate = Math.max(1, tickRate); // At least one tick per second
+        this.tickNanos = TimeUnit.SECONDS.toNanos(1) / this.tickRate; // Duration of one tick
+        this.speed = profile.getSpeed(0);
+        this.remainingTime = profile.getGameSeconds();
+        int capacity = profile.getMaxTiles();
+        this.tiles = new TileStore(capacity); // Initialize the tile pool
+        this.order = new CharRingQueue(capacity); // Initialize the queue for key order
+        this.lanes = new LaneIndex(LANE_COUNT, capacity, profile.getTilesPerLane()); // Tiles a column may hold at once
+
+        // Every timed event runs on the simulated clock, in this order when several are due at once
+        long oneSecond = TimeUnit.SECONDS.toNanos(1);
+        long spawnNanos = profile.getSpawnIntervalNanos(0);
+        clock.schedule(oneSecond, oneSecond, this::countDown); // Countdown first, so nothing spawns after time is up
+        spawnEvent = clock.schedule(spawnNanos, spawnNanos, this::spawnTiles);
+    }
+
+    // Change the board size used for column layout and the miss line
+    public void setBoardSize(int width, int height) {
+        if (width > 0 && height > 0 && !layout.fits(width, height)) {
+            if (recorder != null) {
+                recorder.boardResized(tickCount, width, height); // The layout changes spawn positions and the miss line
+            }
+            this.layout = LaneLayout.forBoard(width, height); // Computed once here, not on every spawn
+        }
+    }
+
+    // Handle a key press made at the current simulation time; returns the judgement, or null if nothing was hit
+    public Judgement pressKey(char keyChar) {
+        return pressKey(keyChar, 0);
+    }
+
+    // Handle a key press made ageNanos before the current simulation time (negative: during the next tick).
+    // The tile is judged where it was when the key went down, so input latency does not change the result.
+    public Judgement pressKey(char keyChar, long ageNanos) {
+        if (endReason != EndReason.NONE || clock.isPaused()) {
+            return null; // Game over, or paused
+        }
+        if (recorder != null) {
+            recorder.keyPressed(tickCount, keyChar, ageNanos); // Record every press, even ones that hit nothing
+        }
+        if (order.isEmpty()) {
+            return null; // No tiles to press
+        }
+        char expectedKey = order.peek(); // Get the expected key from the queue
+        if (keyChar != expectedKey) {
+            end(EndReason.WRONG_KEY); // End the game if the wrong key is pressed
+            return null;
+        }
+        order.poll(); // Remove the expected key from the queue
+        int i = indexOfKeyTile(expectedKey); // The tile this press is judged against
+        if (i < 0) {
+            return null;
+        }
+        // Time until (negative) or since (positive) the tile reached the judgement line when the key went down
+        double yAtPress = tiles.getY(i) - speed * ageNanos / 1e9;
+        long errorNanos = (long) ((yAtPress - getJudgementY()) / speed * 1e9);
+        long absError = Math.abs(errorNanos);
+        Judgement judgement = absError <= PERFECT_WINDOW_NANOS ? Judgement.PERFECT
+                : absError <= GOOD_WINDOW_NANOS ? Judgement.GOOD
+                : Judgement.MISS;
+        lastTimingErrorNanos = errorNanos;
+        judgementCounts[judgement.ordinal()]++;
+        score += (tiles.isBonus(i) ? 5 : 1) * judgement.getMultiplier(); // Points for the tile type, scaled by timing
+        lanes.remove(tiles.getLane(i), tiles.getSerial(i)); // Free the tile's column
+        tiles.remove(i); // Return the tile to the pool
+        return judgement;
+    }
+
+    // Advance the simulation by exactly one tick; returns false once the game is over
+    public boolean tick() {
+        if (endReason != EndReason.NONE) {
+            return false;
+        }
+        if (clock.isPaused()) {
+            return true; // Nothing moves and no tick is counted while paused
+        }
+        tickCount++; // Count the tick
+        clock.advance(tickNanos); // Countdown, spawns and ramps that became due during this tick
+        if (endReason != EndReason.NONE) {
+            return false; // Time ran out
+        }
+
+        speed = profile.getSpeed(clock.getTime()); // Follow the speed ramp
+        tiles.moveAll(speed / tickRate); // Move every tile down by one tick's distance
+
+        // All tiles fall at the same speed, so the oldest tile is always the lowest one
+        while (!tiles.isEmpty() && tiles.getY(0) > layout.getHeight()) {
+            lanes.remove(tiles.getLane(0), tiles.getSerial(0)); // The tile leaves its column
+            tiles.remove(0);
+            order.poll(); // The oldest tile is always the one the player has to press next
+            if (profile.isMissEndsGame()) {
+                end(EndReason.TILE_MISSED); // End the game if a tile reaches the bottom
+                return false;
+            }
+            missedCount++; // Profiles like Stress let the game go on
+        }
+        return true;
+    }
+
+    // One second of the countdown has passed (clock event)
+    private void countDown() {
+        remainingTime--;
+        if (remainingTime <= 0) {
+            remainingTime = 0;
+            end(EndReason.TIME_UP); // End the game when time runs out
+        }
+    }
+
+    // Spawn the profile's tiles and schedule the next spawn from the density ramp (clock event)
+    private void spawnTiles() {
+        for (int i = 0; i < profile.getSpawnCount(); i++) {
+            addNewTile();
+        }
+        clock.setPeriod(spawnEvent, profile.getSpawnIntervalNanos(clock.getTime()));
+    }
+
+    // Finish the game, stop the clock and close the replay's event stream
+    private void end(EndReason reason) {
+        endReason = reason;
+        clock.stop(); // No more timed events for this game
+        if (recorder != null) {
+            recorder.gameEnded(tickCount, score, reason);
+        }
+    }
+
+    // Reset to a fresh game with the same difficulty and a new seed
+    public void restart(long newSeed) {
+        seed = newSeed;
+        random.setSeed(newSeed);
+        restart();
+    }
+
+    // Reset to a fresh game with the same difficulty; spawns continue from the current random sequence
+    public void restart() {
+        score = 0; // Reset score
+        tiles.clear(); // Clear the tiles
+        lanes.clear(); // Clear the column index
+        order.clear(); // Clear the order queue
+        clock.reset(); // Restart the clock with the starting spawn interval
+        tickCount = 0;
+        remainingTime = profile.getGameSeconds(); // Reset the timer
+        speed = profile.getSpeed(0);
+        missedCount = 0;
+        endReason = EndReason.NONE;
+        Arrays.fill(judgementCounts, 0); // Reset the timing statistics
+        lastTimingErrorNanos = 0;
+    }
+
+    // Pause or resume the game: while paused, ticks do nothing and key presses are ignored
+    public void setPaused(boolean paused) {
+        clock.setPaused(paused);
+    }
+
+    public boolean isPaused() {
+        return clock.isPaused();
+    }
+
+    // Copy the current state into a snapshot for rendering
+    public void copyTo(GameSnapshot snapshot) {
+        snapshot.copyFrom(tiles, score, remainingTime);
+    }
+
+    // Add a new tile to the game (package-private so BenchmarkTargets can measure spawning on its own)
+    void addNewTile() {
+        if (tiles.isFull()) {
+            return; // No free tile in the pool
+        }
+        boolean isBonus = random.nextDouble() < profile.getBonusRate(clock.getTime()); // Chance to be a bonus tile
+        int column = lanes.pickAvailableLane(random.nextInt()); // Randomly select a free column
+        if (column < 0) {
+            return; // Every column is occupied, skip this spawn
+        }
+        char key = profile.isRandomKeys()
+                ? getRandomKey(isBonus) // Random key in hard mode
+                : getKeyForColumn(column, isBonus); // Get the key for the column
+
+        int i = tiles.add(layout.getLaneX(column), SPAWN_Y, key, isBonus, column); // Take a tile from the pool
+        lanes.add(column, tiles.getSerial(i)); // Mark the column as occupied
+        order.offer(key); // Add the key to the order queue
+    }
+
+    // Get the key associated with a specific column
+    private static char getKeyForColumn(int column, boolean isBonus) {
+        if (isBonus) {
+            return 'b'; // Return 'b' for bonus tiles
+        }
+        switch (column) {
+            case 0:
+                return 'a'; // Return 'a' for column 0
+            case 1:
+                return 's'; // Return 's' for column 1
+            case 2:
+                return 'd'; // Return 'd' for column 2
+            case 3:
+                return 'f'; // Return 'f' for column 3
+            default:
+                return ' '; // Return space for unrecognized columns
+        }
+    }
+
+    // Get a random key regardless of the column (hard mode)
+    private char getRandomKey(boolean isBonus) {
+        int z = random.nextInt(4); // Randomly select a key from the available options
+        if (isBonus) {
+            return 'b'; // Return 'b' for bonus tiles
+        }
+        return getKeyForColumn(z, false);
+    }
+
+    // Index of the oldest live tile with the given key, or -1. When keys belong to columns the key's column gives the
+    // tile directly (lowest tile in the lane, then a binary search by serial); bonus and random keys scan the tiles.
+    public int indexOfKeyTile(char key) {
+        int lane = profile.isRandomKeys() ? -1 : GameBoard.LANE_KEYS.indexOf(key);
+        if (lane >= 0 && lane < LANE_COUNT) {
+            int i = tiles.indexOfSerial(lanes.getOldest(lane)); // -1 when the lane is empty
+            if (i >= 0 && tiles.getKey(i) == key) {
+                return i;
+            }
+            // The lowest tile in the lane is a bonus tile: fall back to the scan
+        }
+        return tiles.indexOfKey(key);
+    }
+
+    // Key the player has to press next, or 0 if no tile is waiting
+    public char peekExpectedKey() {
+        return order.isEmpty() ? 0 : order.peek();
+    }
+
+    // Live tiles (read-only for callers)
+    public TileStore getTiles() {
+        return tiles;
+    }
+
+    public LaneIndex getLanes() {
+        return lanes;
+    }
+
+    public boolean isOver() {
+        return endReason != EndReason.NONE;
+    }
+
+    public EndReason getEndReason() {
+        return endReason;
+    }
+
+    public int getScore() {
+        return score;
+    }
+
+    public int getRemainingTime() {
+        return remainingTime;
+    }
+
+    // Simulated time since the game started in nanoseconds (paused time excluded)
+    public long getElapsedNanos() {
+        return clock.getTime();
+    }
+
+    // Current time between spawns in nanoseconds (shrinks as the game ramps up)
+    public long getSpawnIntervalNanos() {
+        return clock.getPeriod(spawnEvent);
+    }
+
+    public long getTickCount() {
+        return tickCount;
+    }
+
+    public int getTickRate() {
+        return tickRate;
+    }
+
+    public long getTickNanos() {
+        return tickNanos;
+    }
+
+    public int getBoardHeight() {
+        return layout.getHeight();
+    }
+
+    // Height at which a tile's top edge is perfectly timed: the tile rests on the bottom of the board
+    public double getJudgementY() {
+        return layout.getJudgementY();
+    }
+
+    // Number of hits graded with the given judgement this game
+    public long getJudgementCount(Judgement judgement) {
+        return judgementCounts[judgement.ordinal()];
+    }
+
+    // Timing error of the last hit in nanoseconds (negative means early)
+    public long getLastTimingErrorNanos() {
+        return lastTimingErrorNanos;
+    }
+
+    public String getDifficulty() {
+        return profile.getName();
+    }
+
+    public DifficultyProfile getProfile() {
+        return profile;
+    }
+
+    // Size of the tile pool (the most tiles that can be alive at once)
+    public int getTileCapacity() {
+        return tiles.capacity();
+    }
+
+    // Current fall speed in pixels per second
+    public double getSpeed() {
+        return speed;
+    }
+
+    // Tiles that fell off the board in profiles where that does not end the game
+    public long getMissedCount() {
+        return missedCount;
+    }
+
+    // Seed the current game was started with (valid for replays only if restart() was not used since)
+    public long getSeed() {
+        return seed;
+    }
+
+    // Record inputs into the given replay from now on (null stops recording); attach before the first tick
+    public void setRecorder(ReplayWriter recorder) {
+        this.recorder = recorder;
+    }
+}
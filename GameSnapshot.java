@@ -0,0 +1,77 @@
+// Copy of everything the renderer needs, filled by the simulation thread and handed over through SnapshotExchange
+public final class GameSnapshot {
+    private final int[] tileX; // Horizontal position of each tile
+    private final int[] tileLane; // Lane of each tile, so renderers can use their own lane geometry
+    private final double[] tileY; // Vertical position of each tile at this tick
+    private final double[] tilePrevY; // Vertical position of each tile at the previous tick
+    private final char[] tileKey; // Key associated with each tile
+    private final int[] tileSerial; // Serial number of each tile, increasing in spawn order
+    private int tileCount; // Number of tiles in the snapshot
+    private int score; // Player's score at this tick
+    private int remainingTime; // Remaining time in seconds at this tick
+
+    // Constructor for GameSnapshot (storage for the given number of tiles is allocated once)
+    public GameSnapshot(int capacity) {
+        this.tileX = new int[capacity];
+        this.tileLane = new int[capacity];
+        this.tileY = new double[capacity];
+        this.tilePrevY = new double[capacity];
+        this.tileKey = new char[capacity];
+        this.tileSerial = new int[capacity];
+    }
+
+    // Copy the current state into this snapshot (simulation thread only, before publishing)
+    public void copyFrom(TileStore tiles, int score, int remainingTime) {
+        int count = Math.min(tiles.size(), tileX.length);
+        for (int i = 0; i < count; i++) {
+            tileX[i] = tiles.getX(i);
+            tileLane[i] = tiles.getLane(i);
+            tileY[i] = tiles.getY(i);
+            tilePrevY[i] = tiles.getPrevY(i);
+            tileKey[i] = tiles.getKey(i);
+            tileSerial[i] = tiles.getSerial(i);
+        }
+        this.tileCount = count;
+        this.score = score;
+        this.remainingTime = remainingTime;
+    }
+
+    public int getTileCount() {
+        return tileCount;
+    }
+
+    public int getTileX(int i) {
+        return tileX[i];
+    }
+
+    public int getTileLane(int i) {
+        return tileLane[i];
+    }
+
+    // Vertical position of a tile interpolated between the previous and current tick
+    public int getTileY(int i, double alpha) {
+        return (int) getExactTileY(i, alpha);
+    }
+
+    // Same without rounding, for renderers that scale the board
+    public double getExactTileY(int i, double alpha) {
+        return tilePrevY[i] + (tileY[i] - tilePrevY[i]) * alpha;
+    }
+
+    public char getTileKey(int i) {
+        return tileKey[i];
+    }
+
+    // Serial number of a tile: the same tile keeps it from frame to frame
+    public int getTileSerial(int i) {
+        return tileSerial[i];
+    }
+
+    public int getScore() {
+        return score;
+    }
+
+    public int getRemainingTime() {
+        return remainingTime;
+    }
+}
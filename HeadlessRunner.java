@@ -0,0 +1,66 @@
+// Runs GameSimulation without a display, as fast as possible, with scripted input
+public class HeadlessRunner {
+
+    // Result of one headless game
+    public static final class Result {
+        final int score; // Final score
+        final long ticks; // Ticks simulated
+        final GameSimulation.EndReason endReason; // Why the game ended
+
+        Result(int score, long ticks, GameSimulation.EndReason endReason) {
+            this.score = score;
+            this.ticks = ticks;
+            this.endReason = endReason;
+        }
+
+        public int getScore() {
+            return score;
+        }
+
+        public long getTicks() {
+            return ticks;
+        }
+
+        public GameSimulation.EndReason getEndReason() {
+            return endReason;
+        }
+    }
+
+    // Play one game to the end (or until maxTicks) without sleeping between ticks
+    public static Result run(GameSimulation simulation, InputScript script, long maxTicks) {
+        while (!simulation.isOver() && simulation.getTickCount() < maxTicks) {
+            script.beforeTick(simulation); // Scripted key presses for this tick
+            simulation.tick(); // Advance one fixed tick
+        }
+        return new Result(simulation.getScore(), simulation.getTickCount(), simulation.getEndReason());
+    }
+
+    // Usage: java HeadlessRunner [difficulty] [games] [tickRate] [seed]   (a seed makes the run reproducible)
+    public static void main(String[] args) {
+        String difficulty = args.length > 0 ? args[0] : "Hard";
+        int games = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+        int tickRate = args.length > 2 ? Integer.parseInt(args[2]) : 60;
+        Long seed = args.length > 3 ? Long.valueOf(args[3]) : null;
+        InputScript script = InputScript.perfect(); // Press each tile on the judgement line
+
+        long totalTicks = 0;
+        long totalScore = 0;
+        long start = System.nanoTime();
+        GameSimulation simulation = seed != null ? new GameSimulation(difficulty, tickRate, seed)
+                : new GameSimulation(difficulty, tickRate);
+        for (int i = 0; i < games; i++) {
+            if (seed != null) {
+                simulation.restart(seed + i); // Game i always plays the same tiles
+            } else {
+                simulation.restart(); // Reuse the same simulation for every game
+            }
+            Result result = run(simulation, script, Long.MAX_VALUE);
+            totalTicks += result.ticks;
+            totalScore += result.score;
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("%d %s games, %d ticks in %.2f s: %.0f ticks/s (%.0fx realtime), average score %.1f%n",
+                games, difficulty, totalTicks, seconds, totalTicks / seconds, totalTicks / seconds / tickRate,
+                totalScore / (double) games);
+    }
+}
@@ -0,0 +1,95 @@
+import java.awt.*;
+import java.awt.image.BufferedImage;
+
+// Score, time and status text drawn once into a cached translucent image. The image (and its strings) is only
+// rebuilt when one of the values changes, so steady frames draw it with a single blit and allocate nothing.
+// The text is drawn at the board's scale, so it stays sharp and in proportion on large displays.
+public class HudLayer {
+    public static final int WIDTH = 320; // Area covered by the HUD on the logical board
+    public static final int HEIGHT = 66;
+
+    private BufferedImage image; // Cached text, transparent elsewhere
+    private int x = 0; // Top-left corner on the target
+    private int y = 0;
+    private double scale = 1.0; // Scale the text is drawn at
+    private int score = -1; // Values the image was drawn for
+    private int remainingTime = -1;
+    private GameSimulation.Judgement judgement;
+    private boolean paused;
+
+    // Redraw the cached image if any value changed; returns true if it did (the HUD area is dirty)
+    public boolean update(int score, int remainingTime, GameSimulation.Judgement judgement, boolean paused, GraphicsConfiguration gc) {
+        if (image != null && score == this.score && remainingTime == this.remainingTime
+                && judgement == this.judgement && paused == this.paused) {
+            return false; // Nothing changed, keep the cached image
+        }
+        this.score = score;
+        this.remainingTime = remainingTime;
+        this.judgement = judgement;
+        this.paused = paused;
+        if (image == null) {
+            image = gc != null
+                    ? gc.createCompatibleImage(getWidth(), getHeight(), Transparency.TRANSLUCENT) // Match the display format
+                    : new BufferedImage(getWidth(), getHeight(), BufferedImage.TYPE_INT_ARGB); // No display available
+        }
+        Graphics2D g = image.createGraphics();
+        try {
+            g.setComposite(AlphaComposite.Clear); // Clear the previous text
+            g.fillRect(0, 0, getWidth(), getHeight());
+            g.setComposite(AlphaComposite.SrcOver);
+            g.scale(scale, scale); // Text is laid out on the logical board
+            g.setColor(Color.RED);
+            g.drawString("Score: " + score, 10, 20); // Display the score
+            g.drawString("Time Remaining: " + remainingTime + "s", 10, 40); // Display remaining time
+            if (paused) {
+                g.setColor(Color.WHITE);
+                g.drawString("PAUSED - press Esc to resume", 10, 60); // Display the pause notice
+            } else if (judgement != null) {
+                g.drawString(judgement.name(), 10, 60); // Display the grade of the last hit
+            }
+        } finally {
+            g.dispose();
+        }
+        return true;
+    }
+
+    // Draw the cached image (call update() first)
+    public void draw(Graphics g) {
+        g.drawImage(image, x, y, null);
+    }
+
+    // Place the HUD and set the scale of its text (from the board's layout); a new scale rebuilds the image
+    public void setLayout(int x, int y, double scale) {
+        this.x = x;
+        this.y = y;
+        if (scale != this.scale) {
+            this.scale = scale;
+            invalidate();
+        }
+    }
+
+    public int getX() {
+        return x;
+    }
+
+    public int getY() {
+        return y;
+    }
+
+    // Size of the area the HUD covers on the target
+    public int getWidth() {
+        return (int) Math.ceil(WIDTH * scale);
+    }
+
+    public int getHeight() {
+        return (int) Math.ceil(HEIGHT * scale);
+    }
+
+    // Force a rebuild on the next update, e.g. when the target surface was recreated
+    public void invalidate() {
+        if (image != null) {
+            image.flush();
+            image = null;
+        }
+    }
+}
@@ -0,0 +1,75 @@
+import java.util.concurrent.atomic.AtomicLong;
+
+// Lock-free single-producer/single-consumer ring of timestamped key presses (no boxing, no allocation after construction).
+// The EDT offers events, the simulation thread peeks and polls them.
+public class InputRing {
+    private final char[] keys; // Key of each event
+    private final long[] times; // System.nanoTime() when the event reached the listener
+    private final long[] dispatchNanos; // Delay between the OS event and the listener (KeyEvent.getWhen())
+    private final int mask; // Capacity - 1, capacity is a power of two
+    private final AtomicLong written = new AtomicLong(); // Events published by the producer
+    private final AtomicLong read = new AtomicLong(); // Events consumed by the consumer
+    private volatile long dropped = 0; // Events rejected because the ring was full (written by the producer only)
+
+    // Constructor for InputRing (capacity is rounded up to a power of two)
+    public InputRing(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1; // Next power of two
+        this.keys = new char[size];
+        this.times = new long[size];
+        this.dispatchNanos = new long[size];
+        this.mask = size - 1;
+    }
+
+    // Add an event; returns false (and counts a drop) if the consumer is a full ring behind (producer thread only)
+    public boolean offer(char key, long timeNanos, long dispatchDelayNanos) {
+        long w = written.get();
+        if (w - read.get() > mask) {
+            dropped++;
+            return false; // Ring is full
+        }
+        int i = (int) w & mask;
+        keys[i] = key;
+        times[i] = timeNanos;
+        dispatchNanos[i] = dispatchDelayNanos;
+        written.lazySet(w + 1); // Publish the slot after it is filled
+        return true;
+    }
+
+    // Consumer side: true if no event is waiting
+    public boolean isEmpty() {
+        return read.get() == written.get();
+    }
+
+    // Timestamp of the oldest waiting event (check isEmpty() first)
+    public long peekTime() {
+        return times[(int) read.get() & mask];
+    }
+
+    // Key of the oldest waiting event (check isEmpty() first)
+    public char peekKey() {
+        return keys[(int) read.get() & mask];
+    }
+
+    // Dispatch delay of the oldest waiting event (check isEmpty() first)
+    public long peekDispatchNanos() {
+        return dispatchNanos[(int) read.get() & mask];
+    }
+
+    // Drop the oldest waiting event and free its slot for the producer
+    public void poll() {
+        long r = read.get();
+        if (r == written.get()) {
+            throw new IllegalStateException("Ring is empty");
+        }
+        read.lazySet(r + 1);
+    }
+
+    // Events rejected because the ring was full
+    public long getDropped() {
+        return dropped;
+    }
+
+    public int capacity() {
+        return keys.length;
+    }
+}
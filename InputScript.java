@@ -0,0 +1,19 @@
+// Scripted input for headless runs: called before every tick to press keys on the simulation
+public interface InputScript {
+
+    // Press any keys due before the given simulation advances one tick
+    void beforeTick(GameSimulation simulation);
+
+    // Script that never presses anything
+    InputScript NONE = simulation -> { };
+
+    // Script that presses the expected key as soon as the lowest tile reaches the judgement line
+    static InputScript perfect() {
+        return simulation -> {
+            TileStore tiles = simulation.getTiles();
+            if (!tiles.isEmpty() && tiles.getY(0) >= simulation.getJudgementY()) {
+                simulation.pressKey(simulation.peekExpectedKey()); // Always the right key, at most one tick late
+            }
+        };
+    }
+}
@@ -0,0 +1,119 @@
+// Per-lane index of live tiles: O(1) occupancy checks, oldest (lowest) tile per lane and a free-lane bitmask
+public class LaneIndex {
+    private final int laneCount; // Number of lanes (columns)
+    private final int[][] serials; // Per-lane ring of tile serial numbers, oldest first
+    private final int[] head; // Per-lane index of the oldest serial
+    private final int[] count; // Per-lane number of live tiles
+    private int maxPerLane; // Lane is full once it holds this many tiles
+    private int occupiedMask = 0; // Bit set for every lane holding at least one tile
+    private int availableMask; // Bit set for every lane that can take another tile
+
+    // Constructor for LaneIndex
+    public LaneIndex(int laneCount, int capacityPerLane, int maxPerLane) {
+        if (laneCount < 1 || laneCount > 31) {
+            throw new IllegalArgumentException("Lane count must be between 1 and 31: " + laneCount);
+        }
+        this.laneCount = laneCount;
+        this.serials = new int[laneCount][capacityPerLane]; // All storage is allocated up front
+        this.head = new int[laneCount];
+        this.count = new int[laneCount];
+        setMaxPerLane(maxPerLane);
+    }
+
+    public int getLaneCount() {
+        return laneCount;
+    }
+
+    // Change how many tiles a lane may hold at once
+    public void setMaxPerLane(int maxPerLane) {
+        this.maxPerLane = Math.max(1, Math.min(maxPerLane, serials[0].length));
+        availableMask = 0;
+        for (int lane = 0; lane < laneCount; lane++) {
+            updateMasks(lane); // Recompute both masks for the new limit
+        }
+    }
+
+    // Check if a lane holds at least one tile
+    public boolean isOccupied(int lane) {
+        return (occupiedMask & (1 << lane)) != 0;
+    }
+
+    // Number of tiles in a lane
+    public int getCount(int lane) {
+        return count[lane];
+    }
+
+    // Bitmask of lanes that can take another tile
+    public int getAvailableMask() {
+        return availableMask;
+    }
+
+    // Serial of the oldest (lowest) tile in a lane, or -1 if the lane is empty
+    public int getOldest(int lane) {
+        return count[lane] == 0 ? -1 : serials[lane][head[lane]];
+    }
+
+    // Record a tile spawned into a lane; returns false if the lane has no room
+    public boolean add(int lane, int serial) {
+        int[] ring = serials[lane];
+        if (count[lane] == ring.length) {
+            return false; // Lane storage is full
+        }
+        ring[(head[lane] + count[lane]) % ring.length] = serial; // Append as the newest tile
+        count[lane]++;
+        updateMasks(lane);
+        return true;
+    }
+
+    // Forget a tile that was hit or fell off; the oldest tile in the lane is removed in O(1)
+    public void remove(int lane, int serial) {
+        int[] ring = serials[lane];
+        int n = count[lane];
+        for (int i = 0; i < n; i++) {
+            int s = (head[lane] + i) % ring.length;
+            if (ring[s] != serial) {
+                continue;
+            }
+            if (i == 0) {
+                head[lane] = (head[lane] + 1) % ring.length; // Oldest tile: just advance the head
+            } else {
+                for (int j = i; j < n - 1; j++) {
+                    ring[(head[lane] + j) % ring.length] = ring[(head[lane] + j + 1) % ring.length]; // Close the gap
+                }
+            }
+            count[lane]--;
+            updateMasks(lane);
+            return;
+        }
+    }
+
+    // Pick a lane that can take another tile, using the given random value; -1 if every lane is full
+    public int pickAvailableLane(int randomValue) {
+        int free = availableMask;
+        if (free == 0) {
+            return -1; // Nothing available, the caller should skip this spawn
+        }
+        int n = Math.floorMod(randomValue, Integer.bitCount(free)); // Which of the free lanes to take
+        for (int i = 0; i < n; i++) {
+            free &= free - 1; // Drop the lowest set bit
+        }
+        return Integer.numberOfTrailingZeros(free);
+    }
+
+    // Remove every tile from every lane
+    public void clear() {
+        for (int lane = 0; lane < laneCount; lane++) {
+            head[lane] = 0;
+            count[lane] = 0;
+        }
+        occupiedMask = 0;
+        availableMask = (1 << laneCount) - 1;
+    }
+
+    // Update the occupancy and availability bits of one lane
+    private void updateMasks(int lane) {
+        int bit = 1 << lane;
+        occupiedMask = count[lane] > 0 ? occupiedMask | bit : occupiedMask & ~bit;
+        availableMask = count[lane] < maxPerLane ? availableMask | bit : availableMask & ~bit;
+    }
+}
@@ -0,0 +1,94 @@
+// Board geometry for one size: lane positions, tile size and the judgement line, computed once when the size changes
+// and only read afterwards. The simulation plays on the logical board (forBoard, 1:1 with its own coordinates); a
+// screen layout (forScreen) maps the standard logical board onto any window or display at one uniform scale, centred,
+// in device pixels, so large and HiDPI displays draw at native resolution without any per-frame layout math.
+public final class LaneLayout {
+    public static final int GAP = 5; // Horizontal gap between lanes on the logical board
+
+    private final int width; // Size of the area laid out, in pixels
+    private final int height;
+    private final double scale; // Pixels per logical board pixel
+    private final int offsetX; // Top-left corner of the board inside the area
+    private final int offsetY;
+    private final int tileSize; // Tile width and height in pixels
+    private final int[] laneX; // Left edge of each lane's tiles in pixels
+    private final int judgementY; // Top edge of a perfectly timed tile in pixels
+
+    // Lay out a boardWidth x boardHeight logical board at the given scale and offset inside a width x height area
+    private LaneLayout(int width, int height, int boardWidth, int boardHeight, double scale, int offsetX, int offsetY) {
+        this.width = width;
+        this.height = height;
+        this.scale = scale;
+        this.offsetX = offsetX;
+        this.offsetY = offsetY;
+        this.tileSize = Math.max(1, (int) Math.round(GameSimulation.TILE_SIZE * scale));
+        this.laneX = new int[GameSimulation.LANE_COUNT];
+        for (int lane = 0; lane < laneX.length; lane++) {
+            int logicalX = (boardWidth / GameSimulation.LANE_COUNT) * lane + GAP * lane; // Same formula the game always used
+            laneX[lane] = offsetX + (int) Math.round(logicalX * scale);
+        }
+        this.judgementY = offsetY + (int) Math.round((boardHeight - GameSimulation.TILE_SIZE) * scale);
+    }
+
+    // Layout of a logical board in its own coordinates (what the simulation uses)
+    public static LaneLayout forBoard(int boardWidth, int boardHeight) {
+        return new LaneLayout(boardWidth, boardHeight, boardWidth, boardHeight, 1.0, 0, 0);
+    }
+
+    // The standard logical board scaled to fit a width x height screen area (in device pixels), centred
+    public static LaneLayout forScreen(int width, int height) {
+        double scale = Math.max(0.01, Math.min(width / (double) GameSimulation.BOARD_WIDTH,
+                height / (double) GameSimulation.BOARD_HEIGHT)); // Uniform, so tiles stay square
+        int offsetX = (width - (int) Math.round(GameSimulation.BOARD_WIDTH * scale)) / 2;
+        int offsetY = (height - (int) Math.round(GameSimulation.BOARD_HEIGHT * scale)) / 2;
+        return new LaneLayout(width, height, GameSimulation.BOARD_WIDTH, GameSimulation.BOARD_HEIGHT, scale, offsetX, offsetY);
+    }
+
+    // Check if this layout was made for the given area size
+    public boolean fits(int width, int height) {
+        return this.width == width && this.height == height;
+    }
+
+    // Left edge of a lane's tiles
+    public int getLaneX(int lane) {
+        return laneX[lane];
+    }
+
+    // Map a logical board height to this layout
+    public int toY(double logicalY) {
+        return offsetY + (int) (logicalY * scale);
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public double getScale() {
+        return scale;
+    }
+
+    public int getOffsetX() {
+        return offsetX;
+    }
+
+    public int getOffsetY() {
+        return offsetY;
+    }
+
+    public int getTileSize() {
+        return tileSize;
+    }
+
+    public int getJudgementY() {
+        return judgementY;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%dx%d at %.2fx, %d px tiles", width, height, scale, tileSize);
+    }
+}
@@ -0,0 +1,112 @@
+import java.util.Arrays;
+import java.util.Locale;
+
+// Fixed-size latency histogram with power-of-two microsecond buckets (no allocation when recording).
+// Bucket 0 holds values below 1 us, bucket i holds values in [2^(i-1), 2^i) us; the last bucket is open-ended.
+public class LatencyHistogram {
+    private static final int BUCKETS = 32; // Up to about 35 minutes, far beyond any input latency
+    private final String name; // Name used when exporting
+    private final long[] counts = new long[BUCKETS]; // Samples per bucket
+    private long count = 0; // Total number of samples
+    private long totalNanos = 0; // Sum of all samples
+    private long maxNanos = 0; // Largest sample
+
+    // Constructor for LatencyHistogram
+    public LatencyHistogram(String name) {
+        this.name = name;
+    }
+
+    // Record one latency sample (negative values count as zero)
+    public synchronized void record(long nanos) {
+        long value = Math.max(0, nanos);
+        counts[bucketOf(value / 1000)]++; // Bucket by whole microseconds
+        count++;
+        totalNanos += value;
+        maxNanos = Math.max(maxNanos, value);
+    }
+
+    // Bucket index for a value in microseconds
+    private static int bucketOf(long micros) {
+        int bucket = 64 - Long.numberOfLeadingZeros(micros); // 0 for 0, 1 for 1, 2 for 2-3, 3 for 4-7, ...
+        return Math.min(bucket, BUCKETS - 1);
+    }
+
+    // Upper bound (exclusive) of a bucket in microseconds
+    private static long bucketLimitMicros(int bucket) {
+        return 1L << bucket;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public synchronized long getCount() {
+        return count;
+    }
+
+    // Average latency in milliseconds
+    public synchronized double getAverageMillis() {
+        return count == 0 ? 0 : totalNanos / (double) count / 1_000_000.0;
+    }
+
+    public synchronized double getMaxMillis() {
+        return maxNanos / 1_000_000.0;
+    }
+
+    // Upper bound of the bucket holding the given percentile (0-100), in milliseconds
+    public synchronized double getPercentileMillis(double percentile) {
+        if (count == 0) {
+            return 0; // No samples yet
+        }
+        long target = Math.max(1, (long) Math.ceil(count * percentile / 100.0)); // Rank of the percentile sample
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= target) {
+                return Math.min(bucketLimitMicros(i) / 1000.0, getMaxMillis()); // Never above the real maximum
+            }
+        }
+        return getMaxMillis();
+    }
+
+    // Forget all samples
+    public synchronized void reset() {
+        Arrays.fill(counts, 0);
+        count = 0;
+        totalNanos = 0;
+        maxNanos = 0;
+    }
+
+    // Append one CSV row per non-empty bucket: session,histogram,bucket_upper_us,count
+    public synchronized void appendCsv(StringBuilder out, String session) {
+        for (int i = 0; i < BUCKETS; i++) {
+            if (counts[i] > 0) {
+                out.append(session).append(',').append(name).append(',')
+                        .append(i == BUCKETS - 1 ? "inf" : Long.toString(bucketLimitMicros(i))).append(',')
+                        .append(counts[i]).append(System.lineSeparator());
+            }
+        }
+    }
+
+    // Append a JSON object with the summary and the non-empty buckets (keyed by upper bound in microseconds)
+    public synchronized void appendJson(StringBuilder out) {
+        out.append(String.format(Locale.ROOT, "{\"count\":%d,\"avg_ms\":%.3f,\"p50_ms\":%.3f,\"p99_ms\":%.3f,\"max_ms\":%.3f,\"buckets_us\":{",
+                count, getAverageMillis(), getPercentileMillis(50), getPercentileMillis(99), getMaxMillis()));
+        boolean first = true;
+        for (int i = 0; i < BUCKETS; i++) {
+            if (counts[i] > 0) {
+                out.append(first ? "" : ",").append('"').append(i == BUCKETS - 1 ? "inf" : Long.toString(bucketLimitMicros(i)))
+                        .append("\":").append(counts[i]);
+                first = false;
+            }
+        }
+        out.append("}}");
+    }
+
+    // One-line summary for logs and overlays
+    @Override
+    public synchronized String toString() {
+        return String.format(Locale.ROOT, "%s: n=%d avg=%.2fms p50<=%.2fms p99<=%.2fms max=%.2fms", name, count,
+                getAverageMillis(), getPercentileMillis(50), getPercentileMillis(99), getMaxMillis());
+    }
+}
@@ -0,0 +1,316 @@
+import java.awt.*;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.awt.image.VolatileImage;
+
+// Draws the board in layers (cached background, tiles, cached HUD) into a persistent frame image and only repaints
+// the parts that changed: for every tile the union of its old and new bounding boxes, plus the HUD when its text
+// changed. The finished frame is copied to the target with one blit. Falls back to a full redraw when the frame
+// image was lost or resized, or when so much moved that redrawing everything is cheaper.
+// Everything is laid out in device pixels from a LaneLayout that is only rebuilt when the size changes, together with
+// the background and the tile atlas for that size, so any window, fullscreen or HiDPI display draws at native resolution.
+public class LayeredRenderer {
+    private static final int MAX_DIRTY_RECTS = 48; // More dirty rectangles than this: redraw everything
+    private static final double MAX_DIRTY_FRACTION = 0.5; // Dirty area above this share of the board: redraw everything
+
+    private final Image backgroundSource; // Unscaled background image
+    private final String tileKeys; // Keys with a tile sprite
+    private LaneLayout layout; // Geometry for the current size, null until the first frame
+    private SpriteAtlas sprites; // Tile sprites at the layout's tile size, from the per-resolution cache
+    private int tileSize; // Width and height of a tile in pixels
+    private final HudLayer hud = new HudLayer(); // Cached score/time text
+    private AcceleratedImage background; // Background scaled to the board, with the judgement line baked in
+    private VolatileImage frame; // Persistent composed frame (accelerated)
+    private BufferedImage fallbackFrame; // Persistent composed frame when acceleration is unavailable
+    private boolean fullRedraw = true; // The frame image cannot be trusted, draw everything
+
+    // Tiles as drawn into the frame last time (serials increase, so both lists are sorted)
+    private int[] drawnSerial;
+    private int[] drawnX;
+    private int[] drawnY;
+    private int drawnCount = 0;
+
+    // Dirty rectangles for the current frame
+    private final int[] dirtyX = new int[MAX_DIRTY_RECTS + 1];
+    private final int[] dirtyY = new int[MAX_DIRTY_RECTS + 1];
+    private final int[] dirtyW = new int[MAX_DIRTY_RECTS + 1];
+    private final int[] dirtyH = new int[MAX_DIRTY_RECTS + 1];
+    private int dirtyCount = 0;
+    private long dirtyArea = 0;
+
+    // Statistics for the overlay
+    private long fullFrames = 0; // Frames drawn completely
+    private long partialFrames = 0; // Frames drawn from dirty rectangles
+    private long lastPixels = 0; // Pixels composed for the last frame (not counting the final blit)
+
+    // Constructor for LayeredRenderer
+    public LayeredRenderer(Image backgroundSource, String tileKeys, int capacity) {
+        this.backgroundSource = backgroundSource;
+        this.tileKeys = tileKeys;
+        this.drawnSerial = new int[capacity];
+        this.drawnX = new int[capacity];
+        this.drawnY = new int[capacity];
+    }
+
+    // Bring the frame up to date with the snapshot and copy it to the target
+    public void render(Graphics2D target, int width, int height, GraphicsConfiguration gc, GameSnapshot snapshot,
+                       double alpha, GameSimulation.Judgement judgement, boolean paused) {
+        // HiDPI displays have more pixels than user-space units: compose in device pixels and blit 1:1
+        boolean scaled = AcceleratedImage.isScaled(gc);
+        int deviceWidth = width;
+        int deviceHeight = height;
+        if (scaled) {
+            AffineTransform transform = gc.getDefaultTransform();
+            deviceWidth = (int) Math.ceil(width * transform.getScaleX());
+            deviceHeight = (int) Math.ceil(height * transform.getScaleY());
+        }
+        if (layout == null || !layout.fits(deviceWidth, deviceHeight)) {
+            relayout(deviceWidth, deviceHeight, gc);
+        }
+        boolean hudChanged = hud.update(snapshot.getScore(), snapshot.getRemainingTime(), judgement, paused, gc);
+
+        if (gc == null || fallbackFrame != null || scaled) {
+            compose(prepareFallbackFrame(deviceWidth, deviceHeight, gc), deviceWidth, deviceHeight, gc, snapshot, alpha, hudChanged);
+            target.drawImage(fallbackFrame, 0, 0, width, height, null); // One blit, device pixels onto the scaled target
+            return;
+        }
+        do {
+            int status = frame == null || frame.getWidth() != width || frame.getHeight() != height
+                    ? VolatileImage.IMAGE_INCOMPATIBLE : frame.validate(gc);
+            if (status == VolatileImage.IMAGE_INCOMPATIBLE) {
+                if (frame != null) {
+                    frame.flush();
+                }
+                frame = createFrame(width, height, gc);
+                if (frame == null) {
+                    compose(prepareFallbackFrame(width, height, gc), width, height, gc, snapshot, alpha, hudChanged);
+                    target.drawImage(fallbackFrame, 0, 0, null); // Acceleration is not available
+                    return;
+                }
+                fullRedraw = true; // New surface, nothing on it yet
+            } else if (status == VolatileImage.IMAGE_RESTORED) {
+                fullRedraw = true; // Contents were lost
+            }
+            compose(frame, width, height, gc, snapshot, alpha, hudChanged);
+            target.drawImage(frame, 0, 0, null); // One blit for the whole board
+            if (frame.contentsLost()) {
+                fullRedraw = true; // Lost while drawing, redraw everything on the retry
+            }
+        } while (frame.contentsLost());
+    }
+
+    // New size: rebuild the lane geometry and everything sized from it
+    private void relayout(int width, int height, GraphicsConfiguration gc) {
+        layout = LaneLayout.forScreen(width, height);
+        tileSize = layout.getTileSize();
+        sprites = SpriteAtlas.forTiles(tileKeys, tileSize); // Scaled once per resolution and cached
+        if (background != null) {
+            background.flush(); // Release the copy for the old size
+        }
+        background = new AcceleratedImage(composeBackground(width, height, gc), width, height, Transparency.OPAQUE);
+        hud.setLayout(layout.getOffsetX(), layout.getOffsetY(), layout.getScale()); // Top-left corner of the board
+        fullRedraw = true;
+    }
+
+    // Position of a tile in pixels: its lane's precomputed edge, and its height scaled to the layout
+    private int tileX(GameSnapshot snapshot, int i) {
+        return layout.getLaneX(snapshot.getTileLane(i));
+    }
+
+    private int tileY(GameSnapshot snapshot, int i, double alpha) {
+        return layout.toY(snapshot.getExactTileY(i, alpha));
+    }
+
+    // Redraw the changed parts of the frame (or all of it)
+    private void compose(Image surface, int width, int height, GraphicsConfiguration gc, GameSnapshot snapshot,
+                         double alpha, boolean hudChanged) {
+        Graphics2D g = (Graphics2D) surface.getGraphics();
+        try {
+            if (!fullRedraw) {
+                collectDirty(snapshot, alpha, hudChanged);
+                if (dirtyCount > MAX_DIRTY_RECTS || dirtyArea > MAX_DIRTY_FRACTION * width * height) {
+                    fullRedraw = true; // Too much moved to be worth clipping
+                }
+            }
+            if (fullRedraw) {
+                drawRegion(g, 0, 0, width, height, gc, snapshot, alpha);
+                fullRedraw = false;
+                fullFrames++;
+                lastPixels = (long) width * height;
+            } else {
+                for (int r = 0; r < dirtyCount; r++) {
+                    g.setClip(dirtyX[r], dirtyY[r], dirtyW[r], dirtyH[r]); // Only touch pixels inside this rectangle
+                    drawRegion(g, dirtyX[r], dirtyY[r], dirtyW[r], dirtyH[r], gc, snapshot, alpha);
+                }
+                partialFrames++;
+                lastPixels = dirtyArea;
+            }
+            rememberDrawn(snapshot, alpha);
+        } finally {
+            g.dispose();
+        }
+    }
+
+    // Draw every layer that overlaps a rectangle (the clip keeps drawing inside it)
+    private void drawRegion(Graphics2D g, int x, int y, int w, int h, GraphicsConfiguration gc, GameSnapshot snapshot, double alpha) {
+        background.draw(g, 0, 0, gc); // Clipped to the rectangle by the caller
+        for (int i = 0; i < snapshot.getTileCount(); i++) {
+            int tileX = tileX(snapshot, i);
+            int tileY = tileY(snapshot, i, alpha);
+            if (tileX < x + w && tileX + tileSize > x && tileY < y + h && tileY + tileSize > y) {
+                sprites.draw(g, snapshot.getTileKey(i), tileX, tileY, gc); // Older tiles first, so overlaps look the same as a full redraw
+            }
+        }
+        if (hud.getX() < x + w && hud.getX() + hud.getWidth() > x && hud.getY() < y + h && hud.getY() + hud.getHeight() > y) {
+            hud.draw(g);
+        }
+    }
+
+    // Dirty rectangles: union of old and new box for moved tiles, old box for removed tiles, new box for new tiles
+    private void collectDirty(GameSnapshot snapshot, double alpha, boolean hudChanged) {
+        dirtyCount = 0;
+        dirtyArea = 0;
+        if (hudChanged) {
+            addDirty(hud.getX(), hud.getY(), hud.getWidth(), hud.getHeight());
+        }
+        int oldIndex = 0;
+        int newIndex = 0;
+        int newCount = snapshot.getTileCount();
+        while ((oldIndex < drawnCount || newIndex < newCount) && dirtyCount <= MAX_DIRTY_RECTS) {
+            int oldSerial = oldIndex < drawnCount ? drawnSerial[oldIndex] : Integer.MAX_VALUE;
+            int newSerial = newIndex < newCount ? snapshot.getTileSerial(newIndex) : Integer.MAX_VALUE;
+            if (oldSerial == newSerial) {
+                int oldX = drawnX[oldIndex];
+                int oldY = drawnY[oldIndex];
+                int newX = tileX(snapshot, newIndex);
+                int newY = tileY(snapshot, newIndex, alpha);
+                if (oldX != newX || oldY != newY) {
+                    int left = Math.min(oldX, newX);
+                    int top = Math.min(oldY, newY);
+                    addDirty(left, top, Math.max(oldX, newX) + tileSize - left, Math.max(oldY, newY) + tileSize - top);
+                }
+                oldIndex++;
+                newIndex++;
+            } else if (oldSerial < newSerial) {
+                addDirty(drawnX[oldIndex], drawnY[oldIndex], tileSize, tileSize); // Tile was hit or missed
+                oldIndex++;
+            } else {
+                addDirty(tileX(snapshot, newIndex), tileY(snapshot, newIndex, alpha), tileSize, tileSize); // New tile
+                newIndex++;
+            }
+        }
+    }
+
+    // Record a dirty rectangle (the count may go one past MAX_DIRTY_RECTS to signal overflow)
+    private void addDirty(int x, int y, int w, int h) {
+        if (dirtyCount > MAX_DIRTY_RECTS) {
+            return;
+        }
+        dirtyX[dirtyCount] = x;
+        dirtyY[dirtyCount] = y;
+        dirtyW[dirtyCount] = w;
+        dirtyH[dirtyCount] = h;
+        dirtyCount++;
+        dirtyArea += (long) w * h;
+    }
+
+    // Remember where every tile was drawn, for the next frame's dirty rectangles
+    private void rememberDrawn(GameSnapshot snapshot, double alpha) {
+        int count = snapshot.getTileCount();
+        if (count > drawnSerial.length) {
+            drawnSerial = new int[count]; // Only if the snapshot is bigger than the announced capacity
+            drawnX = new int[count];
+            drawnY = new int[count];
+        }
+        for (int i = 0; i < count; i++) {
+            drawnSerial[i] = snapshot.getTileSerial(i);
+            drawnX[i] = tileX(snapshot, i);
+            drawnY[i] = tileY(snapshot, i, alpha);
+        }
+        drawnCount = count;
+    }
+
+    // Background scaled once to the board size, with the judgement line drawn on it
+    private Image composeBackground(int width, int height, GraphicsConfiguration gc) {
+        BufferedImage image = gc != null
+                ? gc.createCompatibleImage(width, height, Transparency.OPAQUE)
+                : new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.drawImage(backgroundSource, 0, 0, width, height, null); // Scale once, here
+            g.setColor(Color.WHITE);
+            int lineY = layout.getJudgementY(); // Top edge of a perfectly timed tile
+            g.drawLine(0, lineY, width, lineY);
+        } finally {
+            g.dispose();
+        }
+        return image;
+    }
+
+    // Create an accelerated frame image, or null if acceleration is unavailable
+    private VolatileImage createFrame(int width, int height, GraphicsConfiguration gc) {
+        try {
+            VolatileImage image = gc.createCompatibleVolatileImage(width, height, Transparency.OPAQUE);
+            if (image != null && image.getCapabilities().isAccelerated()) {
+                return image;
+            }
+            if (image != null) {
+                image.flush(); // Release the unaccelerated surface
+            }
+        } catch (IllegalArgumentException e) {
+            // Fall through to the unaccelerated path
+        }
+        return null;
+    }
+
+    // Get the unaccelerated frame image for the current size
+    private BufferedImage prepareFallbackFrame(int width, int height, GraphicsConfiguration gc) {
+        if (fallbackFrame == null || fallbackFrame.getWidth() != width || fallbackFrame.getHeight() != height) {
+            fallbackFrame = gc != null
+                    ? gc.createCompatibleImage(width, height, Transparency.OPAQUE)
+                    : new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+            fullRedraw = true;
+        }
+        return fallbackFrame;
+    }
+
+    // Redraw everything on the next frame
+    public void invalidate() {
+        fullRedraw = true;
+    }
+
+    // Geometry of the last frame, or null before the first one
+    public LaneLayout getLayout() {
+        return layout;
+    }
+
+    public long getFullFrames() {
+        return fullFrames;
+    }
+
+    public long getPartialFrames() {
+        return partialFrames;
+    }
+
+    // Pixels composed for the last frame (before the final blit)
+    public long getLastPixels() {
+        return lastPixels;
+    }
+
+    // Release the cached images
+    public void flush() {
+        if (background != null) {
+            background.flush();
+            background = null;
+        }
+        if (frame != null) {
+            frame.flush();
+            frame = null;
+        }
+        fallbackFrame = null;
+        layout = null; // Rebuilt with the background on the next frame
+        hud.invalidate();
+        fullRedraw = true;
+    }
+}
@@ -0,0 +1,99 @@
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+// Top-N scores for one difficulty, kept sorted best first in a concurrent skip list. Readers (best entry, top-N
+// queries) never lock; writers are serialized so the board never holds more than capacity entries.
+public class Leaderboard {
+    private final int capacity; // Maximum number of entries kept
+    private final ConcurrentSkipListSet<Entry> entries = new ConcurrentSkipListSet<>(Leaderboard::compareBestFirst); // Best first
+    private volatile int size = 0; // Number of entries (the skip list's own size() walks the whole list)
+
+    // Constructor for Leaderboard
+    public Leaderboard(int capacity) {
+        this.capacity = capacity;
+    }
+
+    // Order entries by score, and among equal scores the older entry ranks higher
+    private static int compareBestFirst(Entry a, Entry b) {
+        if (a.score != b.score) {
+            return Integer.compare(b.score, a.score); // Higher score first
+        }
+        return Long.compare(a.sequence, b.sequence); // Older entry with the same score first
+    }
+
+    // Check if a score would make it onto the board
+    public boolean qualifies(int score) {
+        return size < capacity || score > entries.last().score; // The board is full, so last() exists
+    }
+
+    // Add an entry; returns true if it made it onto the board
+    public synchronized boolean offer(Entry entry) {
+        if (size < capacity) {
+            entries.add(entry); // Board is not full yet
+            size++;
+            return true;
+        }
+        if (compareBestFirst(entry, entries.last()) >= 0) {
+            return false; // Not better than the weakest entry
+        }
+        entries.add(entry);
+        entries.pollLast(); // Drop the weakest entry
+        return true;
+    }
+
+    // Best entry on the board, or null if it is empty
+    public Entry getBest() {
+        Iterator<Entry> it = entries.iterator();
+        return it.hasNext() ? it.next() : null;
+    }
+
+    // Entries sorted from best to worst
+    public List<Entry> getTop() {
+        return getTop(capacity); // A reader racing offer() could otherwise see the entry about to be dropped
+    }
+
+    // The best n entries, best first
+    public List<Entry> getTop(int n) {
+        List<Entry> top = new ArrayList<>(Math.min(n, capacity));
+        for (Iterator<Entry> it = entries.iterator(); it.hasNext() && top.size() < n; ) {
+            top.add(it.next());
+        }
+        return top;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    // One score on a leaderboard
+    public static final class Entry {
+        final String name; // Player's name
+        final int score; // Player's score
+        final long sequence; // Order in which the score was recorded
+
+        // Constructor for Entry
+        Entry(String name, int score, long sequence) {
+            this.name = name;
+            this.score = score;
+            this.sequence = sequence;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public int getScore() {
+            return score;
+        }
+
+        public long getSequence() {
+            return sequence;
+        }
+    }
+}
@@ -0,0 +1,130 @@
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+// Blocking client for LeaderboardServer (see there for the protocol). Not thread-safe: use it from one thread.
+public class LeaderboardClient implements Closeable {
+    private final Socket socket;
+    private final BufferedReader reader;
+    private final Writer writer;
+    private long nextId = 1; // Id of the next submission on this connection
+
+    // One score waiting to be sent
+    public static final class Submission {
+        final String difficulty;
+        final String name;
+        final int score;
+
+        // Constructor for Submission
+        public Submission(String difficulty, String name, int score) {
+            this.difficulty = difficulty;
+            this.name = name;
+            this.score = score;
+        }
+    }
+
+    // Connect, giving up after connectTimeoutMillis; answers may take up to readTimeoutMillis
+    public LeaderboardClient(String host, int port, int connectTimeoutMillis, int readTimeoutMillis) throws IOException {
+        socket = new Socket();
+        try {
+            socket.connect(new InetSocketAddress(host, port), connectTimeoutMillis);
+            socket.setSoTimeout(readTimeoutMillis);
+            socket.setTcpNoDelay(true);
+            reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+            writer = new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            socket.close();
+            throw e;
+        }
+    }
+
+    // Change how long to wait for answers from now on
+    public void setReadTimeout(int readTimeoutMillis) throws IOException {
+        socket.setSoTimeout(readTimeoutMillis);
+    }
+
+    // Parse "host:port" (port optional); null for null or empty text
+    public static InetSocketAddress parseAddress(String text) {
+        if (text == null || text.trim().isEmpty()) {
+            return null;
+        }
+        String value = text.trim();
+        int colon = value.lastIndexOf(':');
+        if (colon < 0) {
+            return InetSocketAddress.createUnresolved(value, LeaderboardServer.DEFAULT_PORT);
+        }
+        return InetSocketAddress.createUnresolved(value.substring(0, colon), Integer.parseInt(value.substring(colon + 1)));
+    }
+
+    // Send a batch of scores in one write and wait for the server to ack all of them; returns how many it rejected
+    public int submitAll(List<Submission> batch) throws IOException {
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        StringBuilder request = new StringBuilder();
+        long lastId = 0;
+        for (Submission submission : batch) {
+            lastId = nextId++;
+            request.append("S\t").append(lastId).append('\t').append(submission.difficulty).append('\t')
+                    .append(clean(submission.name)).append('\t').append(submission.score).append('\n');
+        }
+        writer.write(request.toString());
+        writer.flush();
+        while (true) {
+            String[] answer = readAnswer();
+            if (answer[0].equals("A") && Long.parseLong(answer[1]) >= lastId) {
+                return answer.length > 3 ? Integer.parseInt(answer[3]) : 0; // Acks are cumulative
+            }
+        }
+    }
+
+    // Best n scores for a difficulty, best first (sequence holds the rank)
+    public List<Leaderboard.Entry> top(String difficulty, int n) throws IOException {
+        writer.write("T\t" + difficulty + "\t" + n + "\n");
+        writer.flush();
+        while (true) {
+            String[] answer = readAnswer();
+            if (answer[0].equals("T") && answer[1].equals(difficulty)) {
+                List<Leaderboard.Entry> entries = new ArrayList<>();
+                for (int i = 2; i + 1 < answer.length; i += 2) {
+                    entries.add(new Leaderboard.Entry(answer[i], Integer.parseInt(answer[i + 1]), entries.size() + 1));
+                }
+                return entries;
+            }
+        }
+    }
+
+    // Read one answer line, failing on errors and end of stream
+    private String[] readAnswer() throws IOException {
+        String line = reader.readLine();
+        if (line == null) {
+            throw new IOException("Leaderboard server closed the connection");
+        }
+        String[] parts = line.split("\t", -1);
+        if (parts[0].equals("E")) {
+            throw new IOException("Leaderboard server error: " + (parts.length > 1 ? parts[1] : line));
+        }
+        if (parts.length < 2) {
+            throw new IOException("Unexpected answer: " + line);
+        }
+        return parts;
+    }
+
+    // Names cannot contain the protocol's separators
+    private static String clean(String name) {
+        return name.replace('\t', ' ').replace('\n', ' ').replace('\r', ' ');
+    }
+
+    @Override
+    public void close() throws IOException {
+        socket.close();
+    }
+}
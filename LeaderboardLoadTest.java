@@ -0,0 +1,186 @@
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.Random;
+
+// Load generator for LeaderboardServer: thousands of simulated game machines on one selector thread. Each client
+// submits batches of scores, waits for the batch's ack and sometimes asks for a top-10, until it sent all batches.
+public class LeaderboardLoadTest {
+    private static final String[] DIFFICULTIES = {"Easy", "Medium", "Hard"};
+
+    private final LatencyHistogram ackLatency = new LatencyHistogram("batch_ack"); // Batch sent to batch acked
+    private final int batches; // Batches per client
+    private final int batchSize; // Scores per batch
+    private long submitted = 0; // Scores acked
+    private long queries = 0; // Top-N answers received
+    private long errors = 0; // Error answers and broken connections
+    private int active = 0; // Clients not done yet
+
+    // One simulated game machine
+    private final class Client {
+        final SocketChannel channel;
+        final Random random;
+        final ByteBuffer in = ByteBuffer.allocate(8192);
+        ByteBuffer out;
+        int batchesLeft = batches;
+        long nextId = 1;
+        long waitingFor = -1; // Id that completes the current batch, -1 when idle
+        long sentAt; // When the current batch was sent
+
+        Client(SocketChannel channel, long seed) {
+            this.channel = channel;
+            this.random = new Random(seed);
+        }
+
+        // Build the next batch (and sometimes a query) into the output buffer
+        void prepareBatch() {
+            StringBuilder request = new StringBuilder();
+            for (int i = 0; i < batchSize; i++) {
+                waitingFor = nextId++;
+                request.append("S\t").append(waitingFor).append('\t').append(DIFFICULTIES[random.nextInt(DIFFICULTIES.length)])
+                        .append("\tload-").append(random.nextInt(1000)).append('\t').append(random.nextInt(5000)).append('\n');
+            }
+            if (random.nextInt(4) == 0) {
+                request.append("T\t").append(DIFFICULTIES[random.nextInt(DIFFICULTIES.length)]).append("\t10\n");
+            }
+            out = ByteBuffer.wrap(request.toString().getBytes(StandardCharsets.UTF_8));
+            sentAt = System.nanoTime();
+            batchesLeft--;
+        }
+
+        // Handle every complete answer line; returns false when the client is finished
+        boolean read() throws IOException {
+            if (channel.read(in) < 0) {
+                throw new IOException("Server closed the connection");
+            }
+            in.flip();
+            int start = 0;
+            for (int i = 0; i < in.limit(); i++) {
+                if (in.get(i) != '\n') {
+                    continue;
+                }
+                String line = new String(in.array(), start, i - start, StandardCharsets.UTF_8);
+                start = i + 1;
+                if (line.startsWith("A\t")) {
+                    long id = Long.parseLong(line.split("\t")[1]);
+                    if (id >= waitingFor && waitingFor >= 0) {
+                        ackLatency.record(System.nanoTime() - sentAt);
+                        submitted += batchSize;
+                        waitingFor = -1;
+                    }
+                } else if (line.startsWith("T\t")) {
+                    queries++;
+                } else {
+                    errors++;
+                }
+            }
+            in.position(start);
+            in.compact();
+            return waitingFor >= 0 || batchesLeft > 0;
+        }
+    }
+
+    // Constructor for LeaderboardLoadTest
+    private LeaderboardLoadTest(int batches, int batchSize) {
+        this.batches = batches;
+        this.batchSize = batchSize;
+    }
+
+    // Connect every client, run them to the end and return the elapsed seconds
+    private double run(InetSocketAddress address, int clients) throws IOException {
+        long start = System.nanoTime();
+        try (Selector selector = Selector.open()) {
+            for (int i = 0; i < clients; i++) {
+                SocketChannel channel = SocketChannel.open();
+                channel.configureBlocking(false);
+                channel.socket().setTcpNoDelay(true);
+                channel.connect(address);
+                channel.register(selector, SelectionKey.OP_CONNECT, new Client(channel, i));
+                active++;
+            }
+            while (active > 0) {
+                selector.select(1000);
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    Client client = (Client) key.attachment();
+                    try {
+                        if (key.isConnectable()) {
+                            client.channel.finishConnect();
+                            client.prepareBatch();
+                            key.interestOps(SelectionKey.OP_WRITE);
+                        } else if (key.isWritable()) {
+                            client.channel.write(client.out);
+                            if (!client.out.hasRemaining()) {
+                                key.interestOps(SelectionKey.OP_READ); // Wait for the ack
+                            }
+                        } else if (key.isReadable()) {
+                            if (!client.read()) {
+                                finish(key);
+                            } else if (client.waitingFor < 0) {
+                                client.prepareBatch(); // Acked, send the next batch
+                                key.interestOps(SelectionKey.OP_WRITE);
+                            }
+                        }
+                    } catch (IOException | RuntimeException e) {
+                        errors++;
+                        finish(key);
+                    }
+                }
+            }
+        }
+        return (System.nanoTime() - start) / 1e9;
+    }
+
+    private void finish(SelectionKey key) {
+        key.cancel();
+        try {
+            key.channel().close();
+        } catch (IOException e) {
+            // Already closed
+        }
+        active--;
+    }
+
+    // Usage: java LeaderboardLoadTest [host|embedded] [port] [clients] [batches] [batchSize]
+    //   "embedded" starts a server in this JVM with its scores in a temporary directory
+    public static void main(String[] args) throws IOException {
+        String host = args.length > 0 ? args[0] : "embedded";
+        int port = args.length > 1 ? Integer.parseInt(args[1]) : LeaderboardServer.DEFAULT_PORT;
+        int clients = args.length > 2 ? Integer.parseInt(args[2]) : 2000;
+        int batches = args.length > 3 ? Integer.parseInt(args[3]) : 10;
+        int batchSize = args.length > 4 ? Integer.parseInt(args[4]) : 5;
+
+        LeaderboardServer server = null;
+        ScoreStore store = null;
+        if (host.equals("embedded")) {
+            Path directory = Files.createTempDirectory("leaderboard-load");
+            store = new ScoreStore(directory, 100, 1000);
+            server = new LeaderboardServer(new InetSocketAddress("127.0.0.1", 0), store, Runtime.getRuntime().availableProcessors());
+            server.start();
+            host = "127.0.0.1";
+            port = server.getPort();
+        }
+        try {
+            LeaderboardLoadTest test = new LeaderboardLoadTest(batches, batchSize);
+            double seconds = test.run(new InetSocketAddress(host, port), clients);
+            System.out.printf("%d clients x %d batches of %d: %d scores acked in %.2f s (%.0f scores/s), %d queries, %d errors%n",
+                    clients, batches, batchSize, test.submitted, seconds, test.submitted / seconds, test.queries, test.errors);
+            System.out.println(test.ackLatency);
+        } finally {
+            if (server != null) {
+                server.close();
+                store.close();
+                System.out.println("Server saw " + server.getConnections() + " connections, " + server.getSubmissions() + " scores");
+            }
+        }
+    }
+}
@@ -0,0 +1,364 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Score server for many game machines on a LAN (or localhost). Clients speak a line protocol over TCP; fields are
+// separated by tabs:
+//   S <id> <difficulty> <name> <score>   submit a score (ids increase per connection)
+//   T <difficulty> <n>                   ask for the best n scores
+// The server answers T <difficulty> followed by name/score pairs, and A <id> <count> <rejected> once every submission up
+// to <id> on that connection is on disk: all scores read in one selector pass share one fsync and one ack per client.
+// Submissions with a bad difficulty are answered in that ack as rejected, so one bad score never blocks a batch.
+// Answers to T may overtake acks. Malformed lines get E <message>.
+// Leaderboards live in a ScoreStore, whose skip-list boards serve top-N queries from memory without locking.
+public class LeaderboardServer implements Closeable {
+    public static final int DEFAULT_PORT = 47700; // Default TCP port
+    public static final int MAX_LINE = 1024; // Longest request line accepted, in bytes
+    private static final int MAX_PENDING_OUTPUT = 1 << 20; // Clients that stop reading are dropped past this
+    private static final int BACKLOG = 1024; // Pending connections, for bursts of clients connecting at once
+
+    private final ScoreStore store; // Leaderboards and their log
+    private final ServerSocketChannel server;
+    private final Reactor[] reactors; // Selector threads, connections are spread across them
+    private final Thread acceptor; // Accepts connections and hands them to the reactors
+    private volatile boolean running = true;
+    private final AtomicLong submissions = new AtomicLong(); // Scores received
+    private final AtomicLong queries = new AtomicLong(); // Top-N queries answered
+    private final AtomicLong connections = new AtomicLong(); // Connections accepted
+
+    // Constructor for LeaderboardServer: binds right away, call start() to begin serving
+    public LeaderboardServer(InetSocketAddress address, ScoreStore store, int reactorCount) throws IOException {
+        this.store = store;
+        this.server = ServerSocketChannel.open();
+        server.bind(address, BACKLOG);
+        this.reactors = new Reactor[Math.max(1, reactorCount)];
+        for (int i = 0; i < reactors.length; i++) {
+            reactors[i] = new Reactor(i);
+        }
+        this.acceptor = new Thread(this::acceptLoop, "leaderboard-acceptor");
+    }
+
+    // Start the acceptor and reactor threads
+    public void start() {
+        for (Reactor reactor : reactors) {
+            reactor.thread.start();
+        }
+        acceptor.start();
+    }
+
+    // Port actually bound (useful when binding to port 0)
+    public int getPort() {
+        return server.socket().getLocalPort();
+    }
+
+    public long getSubmissions() {
+        return submissions.get();
+    }
+
+    public long getQueries() {
+        return queries.get();
+    }
+
+    public long getConnections() {
+        return connections.get();
+    }
+
+    // Accept connections (blocking) and give them to the reactors in turn
+    private void acceptLoop() {
+        int next = 0;
+        while (running) {
+            try {
+                SocketChannel channel = server.accept();
+                channel.configureBlocking(false);
+                channel.socket().setTcpNoDelay(true); // Acks are small and latency matters
+                connections.incrementAndGet();
+                reactors[next].hand(channel);
+                next = (next + 1) % reactors.length;
+            } catch (ClosedChannelException e) {
+                return; // Closed by close()
+            } catch (IOException e) {
+                if (running) {
+                    System.err.println("Accept failed: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    // Stop serving and write every accepted score to disk
+    @Override
+    public void close() throws IOException {
+        running = false;
+        server.close(); // Wakes the acceptor
+        for (Reactor reactor : reactors) {
+            reactor.selector.wakeup();
+            try {
+                reactor.thread.join(2000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        store.flush();
+    }
+
+    // One selector thread and the connections it owns
+    private final class Reactor implements Runnable {
+        final Selector selector;
+        final Thread thread;
+        final Queue<SocketChannel> incoming = new ConcurrentLinkedQueue<>(); // Accepted, not yet registered
+        final List<Connection> toAck = new ArrayList<>(); // Connections with submissions in this pass
+
+        Reactor(int index) throws IOException {
+            this.selector = Selector.open();
+            this.thread = new Thread(this, "leaderboard-reactor-" + index);
+        }
+
+        // Hand over a new connection (acceptor thread)
+        void hand(SocketChannel channel) {
+            incoming.add(channel);
+            selector.wakeup();
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (running) {
+                    selector.select();
+                    SocketChannel channel;
+                    while ((channel = incoming.poll()) != null) {
+                        Connection connection = new Connection(channel);
+                        try {
+                            connection.key = channel.register(selector, SelectionKey.OP_READ, connection);
+                        } catch (ClosedChannelException e) {
+                            // Closed before it was registered
+                        }
+                    }
+                    Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                    while (keys.hasNext()) {
+                        SelectionKey key = keys.next();
+                        keys.remove();
+                        Connection connection = (Connection) key.attachment();
+                        try {
+                            if (key.isValid() && key.isReadable()) {
+                                connection.read(this);
+                            }
+                            if (key.isValid() && key.isWritable()) {
+                                connection.write();
+                            }
+                        } catch (IOException e) {
+                            connection.close(); // Client went away
+                        }
+                    }
+                    acknowledge();
+                }
+            } catch (IOException e) {
+                System.err.println("Leaderboard reactor stopped: " + e.getMessage());
+            } finally {
+                for (SelectionKey key : selector.keys()) {
+                    ((Connection) key.attachment()).close();
+                }
+                try {
+                    selector.close();
+                } catch (IOException e) {
+                    // Nothing left to release
+                }
+            }
+        }
+
+        // Make this pass's submissions durable with one flush, then ack each client once
+        void acknowledge() {
+            if (toAck.isEmpty()) {
+                return;
+            }
+            String failure = null;
+            try {
+                store.flush(); // Group commit: one fsync for every client in this pass
+            } catch (IOException e) {
+                failure = "E\tstorage failed: " + e.getMessage();
+            }
+            for (Connection connection : toAck) {
+                connection.queue(failure != null ? failure : "A\t" + connection.ackId + "\t"
+                        + (connection.ackCount - connection.ackRejected) + "\t" + connection.ackRejected);
+                connection.ackCount = 0;
+                connection.ackRejected = 0;
+                try {
+                    connection.write();
+                } catch (IOException e) {
+                    connection.close();
+                }
+            }
+            toAck.clear();
+        }
+    }
+
+    // One client connection (owned by a single reactor)
+    private final class Connection {
+        final SocketChannel channel;
+        SelectionKey key;
+        final ByteBuffer in = ByteBuffer.allocate(MAX_LINE * 4); // Bytes read, not yet split into lines
+        ByteBuffer out = ByteBuffer.allocate(4096); // Responses not yet written (write mode)
+        long ackId = -1; // Newest submission id in this pass
+        int ackCount = 0; // Submissions in this pass
+        int ackRejected = 0; // Submissions in this pass that were not stored
+
+        Connection(SocketChannel channel) {
+            this.channel = channel;
+        }
+
+        // Read what arrived and handle every complete line
+        void read(Reactor reactor) throws IOException {
+            if (channel.read(in) < 0) {
+                close();
+                return;
+            }
+            in.flip();
+            int start = in.position();
+            for (int i = start; i < in.limit(); i++) {
+                if (in.get(i) == '\n') {
+                    handle(new String(in.array(), start, i - start, StandardCharsets.UTF_8), reactor);
+                    start = i + 1;
+                }
+            }
+            in.position(start);
+            in.compact(); // Keep the partial line
+            if (in.position() > MAX_LINE) {
+                queue("E\tline too long");
+                write();
+                close();
+            } else if (out.position() > 0 && ackCount == 0) {
+                write(); // Answers to queries; connections with submissions are written after the flush
+            }
+        }
+
+        // Handle one request line
+        void handle(String line, Reactor reactor) {
+            String[] parts = line.split("\t", -1);
+            try {
+                if (parts.length == 5 && parts[0].equals("S")) {
+                    long id = Long.parseLong(parts[1]);
+                    int score = Integer.parseInt(parts[4].trim());
+                    if (ackCount++ == 0) {
+                        reactor.toAck.add(this);
+                    }
+                    ackId = id;
+                    if (!isValidDifficulty(parts[2])) {
+                        ackRejected++; // Acked as rejected, so the client drops it instead of resending the batch
+                        return;
+                    }
+                    store.add(parts[2], parts[3], score); // Kept only if it makes the top N
+                    submissions.incrementAndGet();
+                } else if (parts.length == 3 && parts[0].equals("T")) {
+                    int n = Integer.parseInt(parts[2].trim());
+                    if (!isValidDifficulty(parts[1])) {
+                        queue("E\tbad difficulty");
+                        return;
+                    }
+                    StringBuilder answer = new StringBuilder("T\t").append(parts[1]);
+                    Leaderboard board = store.findBoard(parts[1]); // Queries never create boards, only submissions do
+                    if (board != null) {
+                        for (Leaderboard.Entry entry : board.getTop(Math.max(0, n))) {
+                            answer.append('\t').append(entry.getName()).append('\t').append(entry.getScore());
+                        }
+                    }
+                    queries.incrementAndGet();
+                    queue(answer.toString());
+                } else {
+                    queue("E\tunknown request");
+                }
+            } catch (NumberFormatException e) {
+                queue("E\tbad number");
+            }
+        }
+
+        // Append a response line to the output buffer
+        void queue(String line) {
+            byte[] bytes = (line + "\n").getBytes(StandardCharsets.UTF_8);
+            if (out.remaining() < bytes.length) {
+                int needed = out.position() + bytes.length;
+                if (needed > MAX_PENDING_OUTPUT) {
+                    close(); // The client is not reading its answers
+                    return;
+                }
+                ByteBuffer bigger = ByteBuffer.allocate(Math.max(needed, out.capacity() * 2));
+                out.flip();
+                bigger.put(out);
+                out = bigger;
+            }
+            out.put(bytes);
+        }
+
+        // Write as much output as the socket takes; wait for OP_WRITE for the rest
+        void write() throws IOException {
+            if (!channel.isOpen()) {
+                return;
+            }
+            out.flip();
+            channel.write(out);
+            out.compact();
+            if (key != null && key.isValid()) {
+                key.interestOps(out.position() > 0 ? SelectionKey.OP_READ | SelectionKey.OP_WRITE : SelectionKey.OP_READ);
+            }
+        }
+
+        void close() {
+            try {
+                channel.close(); // Also cancels the key
+            } catch (IOException e) {
+                // Already gone
+            }
+        }
+    }
+
+    // Difficulties end up in the score log, so only plain names are accepted
+    public static boolean isValidDifficulty(String difficulty) {
+        if (difficulty.isEmpty() || difficulty.length() > 32) {
+            return false;
+        }
+        for (int i = 0; i < difficulty.length(); i++) {
+            if (!Character.isLetterOrDigit(difficulty.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Usage: java LeaderboardServer [port] [bindAddress] [dataDirectory] [topN] [reactors]
+    //   bindAddress 0.0.0.0 serves the LAN; the default only accepts local connections
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        String bind = args.length > 1 ? args[1] : "127.0.0.1";
+        Path directory = Paths.get(args.length > 2 ? args[2] : "server-scores");
+        int topN = args.length > 3 ? Integer.parseInt(args[3]) : 100;
+        int reactorCount = args.length > 4 ? Integer.parseInt(args[4]) : Runtime.getRuntime().availableProcessors();
+        Files.createDirectories(directory);
+        ScoreStore store = new ScoreStore(directory, topN, 1000);
+        LeaderboardServer server = new LeaderboardServer(new InetSocketAddress(bind, port), store, reactorCount);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try {
+                server.close();
+                store.close();
+                System.out.println("Served " + server.getConnections() + " connections, " + server.getSubmissions()
+                        + " scores, " + server.getQueries() + " queries");
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }, "leaderboard-shutdown"));
+        server.start();
+        System.out.println("Leaderboard server on " + bind + ":" + server.getPort() + ", scores in " + directory.toAbsolutePath());
+    }
+}
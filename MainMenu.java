@@ -2,27 +2,21 @@ import java.awt.*;
 import java.awt.event.ActionEvent; 
 import java.awt.event.ActionListener; 
 import java.awt.image.BufferedImage; 
-import java.io.File; 
-import java.io.IOException; 
-import javax.imageio.ImageIO; 
+import java.util.ArrayList;
+import java.util.List;
 import javax.swing.*;
 
 public class MainMenu extends JPanel {
     private BufferedImage backgroundImage; 
     private JComboBox<String> difficultyComboBox; 
-    private JLabel easyHighScoreLabel; 
-    private JLabel mediumHighScoreLabel; 
-    private JLabel hardHighScoreLabel;   
+    private JComboBox<String> modeComboBox; // Single player, split-screen or bots
+    private final List<JLabel> highScoreLabels = new ArrayList<>(); // One per difficulty, in the combo box's order
 
     public MainMenu() {
         setLayout(null); 
 
-        // Load the background image
-        try {
-            backgroundImage = ImageIO.read(new File("start.png")); // Read the image file
-        } catch (IOException e) {
-            e.printStackTrace(); 
-        }
+        // Get the background image from the shared cache
+        backgroundImage = AssetManager.getInstance().getImage("start.png");
 
         // Create "Start Game" button
         JButton startButton = new JButton("Start Game"); // Create a new button with label "Start Game"
@@ -47,15 +41,24 @@ public class MainMenu extends JPanel {
         add(exitButton); // Add button to the panel
 
         // Create JComboBox for difficulty selection
-        String[] difficulties = {"Easy", "Medium", "Hard"}; // Difficulty options
+        String[] difficulties = DifficultyProfile.getNames().toArray(new String[0]); // Difficulty options from difficulty.properties
         difficultyComboBox = new JComboBox<>(difficulties); 
         difficultyComboBox.setBounds(315, 300, 200, 30);
         add(difficultyComboBox); // Add combo box to the panel
 
-        // Create label for easy high score
-        easyHighScoreLabel = new JLabel("Max score: " + getHighScore("maxscore")); // Get high score and create label
-        easyHighScoreLabel.setBounds(10, 10, 300, 30); // Set position and size
-        add(easyHighScoreLabel); // Add label to the panel
+        // Create JComboBox for the game mode (the multi-board modes share one scheduler)
+        modeComboBox = new JComboBox<>(new String[] {"1 Player", "2 Players", "Player vs Bot", "4 Bots"});
+        modeComboBox.setBounds(315, 215, 200, 30);
+        add(modeComboBox);
+
+        // Create labels for the high score of each difficulty
+        ScoreManager scoreManager = ScoreManager.getInstance(); // Leaderboards are cached in memory
+        for (String difficulty : difficulties) {
+            JLabel label = new JLabel(difficulty + ": " + scoreManager.getHighScore(difficulty)); // Get high score and create label
+            label.setBounds(10, 10 + 25 * highScoreLabels.size(), 300, 30); // One row per difficulty
+            add(label); // Add label to the panel
+            highScoreLabels.add(label);
+        }
     }
 
     @Override
@@ -70,11 +73,15 @@ public class MainMenu extends JPanel {
     private void startGame() {
         // Retrieve selected difficulty from the combo box
         String selectedDifficulty = (String) difficultyComboBox.getSelectedItem(); // Get selected item
-        System.out.println("Selected Difficulty: " + selectedDifficulty); // Print selected difficulty for debugging
 
         // Proceed to start the game with the selected difficulty
         JFrame frame = (JFrame) SwingUtilities.getWindowAncestor(this); // Get the parent frame of the panel
         frame.getContentPane().removeAll(); // Remove all components from the frame (menu)
+        int mode = modeComboBox.getSelectedIndex();
+        if (mode > 0) {
+            startMultiBoard(frame, selectedDifficulty, mode);
+            return;
+        }
         TileGame game = new TileGame(selectedDifficulty); // Create a new game instance with the selected difficulty
         frame.add(game); // Add the game panel to the frame
         frame.revalidate(); // Refresh the frame to show the new game panel
@@ -83,18 +90,58 @@ public class MainMenu extends JPanel {
         new Thread(game).start(); // Start the game loop in a new thread
     }
 
-    private String getHighScore(String difficulty) {
-        ScoreManager scoreManager = new ScoreManager(); // Create an instance of ScoreManager to handle high scores
-        return scoreManager.getHighScore(difficulty); // Retrieve and return the high score for the specified difficulty
+    // Start a split-screen game: 2 players, player vs bot, or 4 bots to watch
+    private void startMultiBoard(JFrame frame, String difficulty, int mode) {
+        int humans = mode == 1 ? 2 : mode == 2 ? 1 : 0;
+        int bots = mode == 2 ? 1 : mode == 3 ? 4 : 0;
+        MultiBoardGame game = new MultiBoardGame(difficulty, humans, bots);
+        frame.add(game);
+        if (!isFullScreen(frame)) {
+            frame.pack(); // Boards side by side need a wider window
+            frame.setLocationRelativeTo(null);
+        }
+        frame.revalidate();
+        frame.repaint();
+        game.requestFocusInWindow(); // Request focus for the game panel for key events
+        game.start(); // Boards tick on the shared scheduler's workers
     }
 
     public static void main(String[] args) {
+        ScoreManager.getInstance(); // Warm up the score cache before the menu is shown
+        AssetManager assets = AssetManager.getInstance();
+        assets.preload(AssetManager.GAME_ASSETS); // Load every image in parallel before the menu is shown
+        if (Boolean.getBoolean("tilegame.loadReport")) {
+            System.out.print(assets.getLoadReport()); // -Dtilegame.loadReport=true prints startup load times
+        }
         JFrame frame = new JFrame("Tile Game"); // Create a new JFrame with the title "Tile Game"
         frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE); // Set default close operation to exit the application
         frame.setSize(640, 480); // Set the size of the frame
-        frame.setResizable(false); // Disable resizing of the frame
+        frame.setMinimumSize(new Dimension(320, 240)); // The board scales with the window, down to half size
         frame.setLocationRelativeTo(null); // Center the frame on the screen
         frame.add(new MainMenu()); // Add the main menu panel to the frame
-        frame.setVisible(true); // Make the frame visible
+        if (Boolean.getBoolean("tilegame.fullscreen")) {
+            showFullScreen(frame); // -Dtilegame.fullscreen=true, e.g. for kiosks
+        } else {
+            frame.setVisible(true); // Make the frame visible
+        }
+    }
+
+    // Take over the whole display at its native resolution (exclusive mode where supported, else a maximized window)
+    private static void showFullScreen(JFrame frame) {
+        GraphicsDevice device = GraphicsEnvironment.getLocalGraphicsEnvironment().getDefaultScreenDevice();
+        frame.setUndecorated(true); // No title bar or borders
+        if (device.isFullScreenSupported()) {
+            device.setFullScreenWindow(frame); // Exclusive mode: page flipping for the game's buffer strategy
+        } else {
+            frame.setExtendedState(JFrame.MAXIMIZED_BOTH);
+            frame.setVisible(true);
+        }
+    }
+
+    // Check if a frame fills its display (exclusive mode or maximized); its size is left alone then
+    public static boolean isFullScreen(JFrame frame) {
+        GraphicsConfiguration gc = frame.getGraphicsConfiguration();
+        return (gc != null && gc.getDevice().getFullScreenWindow() == frame)
+                || (frame.getExtendedState() & JFrame.MAXIMIZED_BOTH) == JFrame.MAXIMIZED_BOTH;
     }
 }
\ No newline at end of file
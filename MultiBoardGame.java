@@ -0,0 +1,134 @@
+import java.awt.*;
+import java.awt.event.KeyAdapter;
+import java.awt.event.KeyEvent;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import javax.swing.*;
+
+// Split-screen game: several boards side by side, each with its own keys and score, ticked on a shared
+// BoardScheduler. Humans and bots can be mixed; every board plays the same tile sequence.
+public class MultiBoardGame extends JPanel {
+    private static final String[] PLAYER_KEYS = {"asdfb", "jkl;n"}; // Columns a, s, d, f, then bonus, per human player
+    private static final String DEFAULT_BOT = "0.99,40,45"; // Accuracy, reaction and jitter (ms) of a good human player
+    private static final int BOARD_WIDTH = GameSimulation.BOARD_WIDTH; // Logical board size, for the preferred window size
+    private static final int BOARD_HEIGHT = GameSimulation.BOARD_HEIGHT;
+
+    private final BoardScheduler scheduler = new BoardScheduler(); // One worker per core for all boards
+    private final List<GameBoard> boards = new ArrayList<>();
+    private final List<LayeredRenderer> renderers = new ArrayList<>(); // One per board, used on the EDT only
+    private final Timer repaintTimer; // Swing timer driving repaints on the EDT
+    private final int columns; // Grid of boards
+    private final int rows;
+    private final double cellScale; // Preferred size of a board relative to the logical board
+
+    // Constructor for MultiBoardGame: humans (at most two) get keys from PLAYER_KEYS, bots play like a good human
+    // (-Dtilegame.bot=accuracy,reactionMs,jitterMs changes how well)
+    public MultiBoardGame(String difficulty, int humans, int bots) {
+        if (humans < 0 || humans > PLAYER_KEYS.length || humans + bots < 1) {
+            throw new IllegalArgumentException("Unsupported players: " + humans + " humans, " + bots + " bots");
+        }
+        int tickRate = Integer.getInteger("tilegame.tickRate", 60);
+        long seed = Long.getLong("tilegame.seed", System.nanoTime()); // Same tiles on every board
+        for (int i = 0; i < humans; i++) {
+            boards.add(new GameBoard("Player " + (i + 1), new GameSimulation(difficulty, tickRate, seed), PLAYER_KEYS[i]));
+        }
+        for (int i = 0; i < bots; i++) {
+            BotPlayer bot = BotPlayer.parse(System.getProperty("tilegame.bot", DEFAULT_BOT), seed + i + 1); // Each bot slips differently
+            boards.add(new GameBoard("Bot " + (i + 1), new GameSimulation(difficulty, tickRate, seed), bot));
+        }
+
+        int count = boards.size();
+        columns = count <= 2 ? count : (int) Math.ceil(Math.sqrt(count));
+        rows = (count + columns - 1) / columns;
+        cellScale = count <= 2 ? 1.0 : 1.0 / columns; // Keep the window about one board wide once there are more than two
+        setPreferredSize(new Dimension((int) (columns * BOARD_WIDTH * cellScale), (int) (rows * BOARD_HEIGHT * cellScale)));
+
+        Image background = AssetManager.getInstance().getImage("play_screen.png");
+        for (GameBoard board : boards) {
+            renderers.add(new LayeredRenderer(background, GameBoard.LANE_KEYS, board.getTileCapacity())); // Same-size boards share one atlas
+        }
+
+        // Each key goes to the board whose key map contains it
+        setFocusable(true);
+        addKeyListener(new KeyAdapter() {
+            @Override
+            public void keyPressed(KeyEvent e) {
+                long now = System.nanoTime(); // Timestamp the press before anything else
+                for (GameBoard board : boards) {
+                    if (board.keyPressed(e.getKeyChar(), now)) {
+                        return;
+                    }
+                }
+            }
+        });
+
+        int maxFps = Integer.getInteger("tilegame.maxFps", 120);
+        repaintTimer = new Timer(1000 / Math.max(1, maxFps > 0 ? maxFps : 120), e -> repaint());
+    }
+
+    // Start ticking every board and repainting (EDT)
+    public void start() {
+        for (GameBoard board : boards) {
+            scheduler.start(board);
+        }
+        repaintTimer.start();
+        scheduler.allFinished().whenComplete((v, e) -> SwingUtilities.invokeLater(this::showResults));
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        super.paintComponent(g);
+        long now = System.nanoTime();
+        GraphicsConfiguration gc = getGraphicsConfiguration();
+        int cellWidth = getWidth() / columns; // Cells share the panel, whatever its size
+        int cellHeight = getHeight() / rows;
+        for (int i = 0; i < boards.size(); i++) {
+            GameBoard board = boards.get(i);
+            Graphics2D cell = (Graphics2D) g.create((i % columns) * cellWidth, (i / columns) * cellHeight, cellWidth, cellHeight);
+            try {
+                renderers.get(i).render(cell, cellWidth, cellHeight, gc, board.acquireSnapshot(), // Laid out for the cell's size
+                        board.getInterpolation(now), board.getLastJudgement(), false);
+                cell.setColor(Color.WHITE);
+                String label = board.isBot() ? board.getName()
+                        : board.getName() + " (" + board.getKeyMap().toUpperCase() + ")";
+                cell.drawString(label, cellWidth - cell.getFontMetrics().stringWidth(label) - 10, 20);
+                if (board.getFinished().isDone()) {
+                    cell.drawString("Finished: " + board.getEndReason(), cellWidth - 160, 40);
+                }
+            } finally {
+                cell.dispose();
+            }
+        }
+    }
+
+    // Show the ranking once every board has finished, then return to the menu (EDT)
+    private void showResults() {
+        repaintTimer.stop();
+        repaint();
+        scheduler.close();
+        List<GameBoard> ranking = new ArrayList<>(boards);
+        ranking.sort(Comparator.comparingInt(GameBoard::getScore).reversed()); // Winner first
+        StringBuilder message = new StringBuilder();
+        for (int i = 0; i < ranking.size(); i++) {
+            GameBoard board = ranking.get(i);
+            message.append(i + 1).append(". ").append(board.getName()).append(": ").append(board.getScore())
+                    .append(" (").append(board.getEndReason()).append(")\n");
+        }
+        JOptionPane.showMessageDialog(this, message.toString(), "Results", JOptionPane.INFORMATION_MESSAGE);
+        for (LayeredRenderer renderer : renderers) {
+            renderer.flush(); // Release the boards' surfaces
+        }
+
+        // Return to the main menu at its usual size
+        JFrame frame = (JFrame) SwingUtilities.getWindowAncestor(this);
+        frame.getContentPane().removeAll();
+        frame.add(new MainMenu());
+        if (!MainMenu.isFullScreen(frame)) {
+            frame.setSize(640, 480);
+            frame.setLocationRelativeTo(null);
+        }
+        frame.revalidate();
+        frame.repaint();
+    }
+}
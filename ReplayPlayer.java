@@ -0,0 +1,129 @@
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+
+// Re-runs a recorded game on a fresh seeded GameSimulation, either as fast as possible or paced to real time
+public class ReplayPlayer {
+
+    // Outcome of a playback compared with what the recording says
+    public static final class Result {
+        final String difficulty; // Difficulty stored in the replay
+        final int score; // Score reached on playback
+        final long ticks; // Ticks simulated
+        final GameSimulation.EndReason endReason; // Why the game ended on playback
+        final int recordedScore; // Score stored in the replay, -1 if it has no END event
+        final GameSimulation.EndReason recordedEndReason; // End reason stored in the replay, or null
+
+        Result(GameSimulation simulation, int recordedScore, GameSimulation.EndReason recordedEndReason) {
+            this.difficulty = simulation.getDifficulty();
+            this.score = simulation.getScore();
+            this.ticks = simulation.getTickCount();
+            this.endReason = simulation.getEndReason();
+            this.recordedScore = recordedScore;
+            this.recordedEndReason = recordedEndReason;
+        }
+
+        public String getDifficulty() {
+            return difficulty;
+        }
+
+        public int getScore() {
+            return score;
+        }
+
+        public long getTicks() {
+            return ticks;
+        }
+
+        public GameSimulation.EndReason getEndReason() {
+            return endReason;
+        }
+
+        public int getRecordedScore() {
+            return recordedScore;
+        }
+
+        // True if the replay is complete and playback reproduced its score and end reason
+        public boolean matchesRecording() {
+            return recordedEndReason != null && recordedScore == score && recordedEndReason == endReason;
+        }
+    }
+
+    // Play a replay file; speed 1 is real time, 2 twice as fast, 0 or less as fast as possible
+    public static Result play(Path file, double speed) throws IOException {
+        try (ReplayReader replay = new ReplayReader(file)) {
+            GameSimulation simulation = new GameSimulation(replay.getProfile(), replay.getTickRate(), replay.getSeed());
+            long tickNanos = speed > 0 ? (long) (simulation.getTickNanos() / speed) : 0; // Wall time per tick
+            long nextTickAt = System.nanoTime();
+            int recordedScore = -1;
+            GameSimulation.EndReason recordedEndReason = null;
+            boolean pending = replay.next(); // Read ahead one event
+
+            while (!simulation.isOver()) {
+                // Apply every event recorded before this tick, in recording order
+                while (pending && replay.getTick() <= simulation.getTickCount() && !replay.isEnd()) {
+                    if (replay.isKey()) {
+                        simulation.pressKey(replay.getKey(), replay.getAgeNanos());
+                    } else if (replay.isBoard()) {
+                        simulation.setBoardSize(replay.getWidth(), replay.getHeight());
+                    }
+                    pending = replay.next();
+                }
+                if (simulation.isOver()) {
+                    break; // A wrong key ended the game
+                }
+                simulation.tick();
+                if (tickNanos > 0) {
+                    nextTickAt += tickNanos;
+                    long sleep = nextTickAt - System.nanoTime();
+                    if (sleep > 0) {
+                        try {
+                            TimeUnit.NANOSECONDS.sleep(sleep); // Pace to the requested speed
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                            break;
+                        }
+                    }
+                }
+            }
+            // Skip anything left (normally only the END event)
+            while (pending) {
+                if (replay.isEnd()) {
+                    recordedScore = replay.getScore();
+                    recordedEndReason = replay.getEndReason();
+                }
+                pending = replay.next();
+            }
+            return new Result(simulation, recordedScore, recordedEndReason);
+        }
+    }
+
+    // Check that a replay really reaches the claimed score on the claimed difficulty (as fast as possible)
+    public static boolean verify(Path file, String difficulty, int claimedScore) {
+        try {
+            Result result = play(file, 0);
+            return result.matchesRecording() && result.getScore() == claimedScore
+                    && result.getDifficulty().equals(difficulty);
+        } catch (IOException e) {
+            System.err.println("Could not read replay " + file + ": " + e.getMessage());
+            return false;
+        }
+    }
+
+    // Usage: java ReplayPlayer <replay file> [speed]   (speed 1 = real time, 0 = as fast as possible)
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Usage: java ReplayPlayer <replay file> [speed]");
+            System.exit(2);
+        }
+        double speed = args.length > 1 ? Double.parseDouble(args[1]) : 0;
+        long start = System.nanoTime();
+        Result result = play(Paths.get(args[0]), speed);
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("Replayed %d ticks in %.3f s: score %d (%s), recorded %d (%s) -> %s%n", result.ticks, seconds,
+                result.score, result.endReason, result.recordedScore, result.recordedEndReason,
+                result.matchesRecording() ? "MATCH" : "MISMATCH");
+        System.exit(result.matchesRecording() ? 0 : 1);
+    }
+}
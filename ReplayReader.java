@@ -0,0 +1,173 @@
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Properties;
+
+// Reads a replay written by ReplayWriter one event at a time; the current event is exposed through the getters
+// (no allocation per event)
+public class ReplayReader implements Closeable {
+    private final DataInputStream in;
+    private final int tickRate; // Header fields
+    private final long seed;
+    private final String difficulty;
+    private final DifficultyProfile profile; // Profile as it was played, null for version 1 replays
+
+    private int type = 0; // Current event (0 before the first call to next())
+    private long tick = 0; // Tick the current event happened at
+    private char key; // KEY events
+    private long ageNanos;
+    private int width; // BOARD events
+    private int height;
+    private int score; // END events
+    private GameSimulation.EndReason endReason;
+
+    // Open a replay file and read its header
+    public ReplayReader(Path file) throws IOException {
+        this(Files.newInputStream(file));
+    }
+
+    // Read a replay from any stream (closed by close())
+    public ReplayReader(InputStream stream) throws IOException {
+        this.in = new DataInputStream(new BufferedInputStream(stream, 4096));
+        if (in.readInt() != ReplayWriter.MAGIC) {
+            throw new IOException("Not a replay file");
+        }
+        int version = in.readUnsignedByte();
+        if (version < 1 || version > ReplayWriter.VERSION) {
+            throw new IOException("Unsupported replay version " + version);
+        }
+        this.tickRate = in.readInt();
+        this.seed = in.readLong();
+        this.difficulty = in.readUTF();
+        if (version >= 2) {
+            Properties settings = new Properties();
+            int count = in.readUnsignedShort();
+            for (int i = 0; i < count; i++) {
+                String key = in.readUTF();
+                settings.setProperty(key, in.readUTF());
+            }
+            this.profile = DifficultyProfile.fromProperties(settings).get(difficulty);
+            if (profile == null) {
+                throw new IOException("Replay header has no settings for " + difficulty);
+            }
+        } else {
+            this.profile = null;
+        }
+    }
+
+    // Advance to the next event; false at the end of the file (a recording cut off mid-event also ends here)
+    public boolean next() throws IOException {
+        int nextType = in.read();
+        if (nextType < 0) {
+            type = 0;
+            return false; // Clean end of file
+        }
+        try {
+            tick += readVarLong();
+            switch (nextType) {
+                case ReplayWriter.KEY:
+                    key = (char) readVarLong();
+                    long zigzag = readVarLong();
+                    ageNanos = (zigzag >>> 1) ^ -(zigzag & 1); // Undo the zigzag encoding
+                    break;
+                case ReplayWriter.BOARD:
+                    width = (int) readVarLong();
+                    height = (int) readVarLong();
+                    break;
+                case ReplayWriter.END:
+                    score = (int) readVarLong();
+                    int reason = (int) readVarLong();
+                    GameSimulation.EndReason[] reasons = GameSimulation.EndReason.values();
+                    endReason = reason < reasons.length ? reasons[reason] : GameSimulation.EndReason.NONE;
+                    break;
+                default:
+                    throw new IOException("Unknown replay event " + nextType);
+            }
+        } catch (EOFException e) {
+            type = 0;
+            return false; // Torn last event from a game that was killed
+        }
+        type = nextType;
+        return true;
+    }
+
+    // Unsigned LEB128, see ReplayWriter
+    private long readVarLong() throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.readUnsignedByte(); // Throws EOFException at the end of the file
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint");
+    }
+
+    public int getTickRate() {
+        return tickRate;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public String getDifficulty() {
+        return difficulty;
+    }
+
+    // Profile the game was played with: rebuilt from the header, or the current one for old replays
+    public DifficultyProfile getProfile() {
+        return profile != null ? profile : DifficultyProfile.get(difficulty);
+    }
+
+    public boolean isKey() {
+        return type == ReplayWriter.KEY;
+    }
+
+    public boolean isBoard() {
+        return type == ReplayWriter.BOARD;
+    }
+
+    public boolean isEnd() {
+        return type == ReplayWriter.END;
+    }
+
+    public long getTick() {
+        return tick;
+    }
+
+    public char getKey() {
+        return key;
+    }
+
+    public long getAgeNanos() {
+        return ageNanos;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public int getScore() {
+        return score;
+    }
+
+    public GameSimulation.EndReason getEndReason() {
+        return endReason;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+}
@@ -0,0 +1,136 @@
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Properties;
+
+// Streams a replay of one game while it is played. Everything that can change the outcome of a seeded
+// GameSimulation is recorded, so ReplayPlayer can re-run the game and get the same score.
+//
+// Format (big-endian header, then unsigned LEB128 varints; signed values are zigzag encoded):
+//   header: "TGRP" (4 bytes), version (1 byte), tick rate (int), seed (long), difficulty (modified UTF-8),
+//           setting count (short), then each profile setting as key and value (modified UTF-8; version 2 and up)
+//   events: type (1 byte), ticks since the previous event (varint), then
+//     KEY:   key (varint), press age in nanoseconds (zigzag varint)
+//     BOARD: width (varint), height (varint)
+//     END:   score (varint), end reason ordinal (varint)
+// Events are stamped with the tick count when they happened and apply before the next tick runs. The header carries
+// the profile as it was played, so later edits to difficulty.properties or a changed game length don't break playback.
+//
+// Like PrintWriter, the record methods never throw: the first I/O error stops recording and is rethrown by close().
+public class ReplayWriter implements Closeable {
+    static final int MAGIC = 0x54475250; // "TGRP"
+    static final int VERSION = 2; // Version 1 had no profile settings
+    static final int KEY = 1; // Key press event
+    static final int BOARD = 2; // Board size change
+    static final int END = 3; // Game over, with the final score
+
+    private final DataOutputStream out; // Buffered output, flushed on close
+    private long lastTick = 0; // Tick of the previous event
+    private IOException failure; // First error, recording stops after it
+
+    // Start a replay file for a game with the given settings
+    public ReplayWriter(Path file, DifficultyProfile profile, int tickRate, long seed) throws IOException {
+        this(Files.newOutputStream(file), profile, tickRate, seed);
+    }
+
+    // Start a replay on any stream (closed by close())
+    public ReplayWriter(OutputStream stream, DifficultyProfile profile, int tickRate, long seed) throws IOException {
+        this.out = new DataOutputStream(new BufferedOutputStream(stream, 4096));
+        out.writeInt(MAGIC);
+        out.writeByte(VERSION);
+        out.writeInt(tickRate);
+        out.writeLong(seed);
+        out.writeUTF(profile.getName());
+        Properties settings = profile.toProperties();
+        out.writeShort(settings.size());
+        for (String key : settings.stringPropertyNames()) {
+            out.writeUTF(key);
+            out.writeUTF(settings.getProperty(key));
+        }
+    }
+
+    // A key press judged before tick `tick`, made ageNanos before that tick's simulation time
+    public void keyPressed(long tick, char key, long ageNanos) {
+        if (startEvent(KEY, tick)) {
+            try {
+                writeVarLong(key);
+                writeVarLong((ageNanos << 1) ^ (ageNanos >> 63)); // Zigzag: small negative ages stay short
+            } catch (IOException e) {
+                failure = e;
+            }
+        }
+    }
+
+    // The board was resized before tick `tick`
+    public void boardResized(long tick, int width, int height) {
+        if (startEvent(BOARD, tick)) {
+            try {
+                writeVarLong(width);
+                writeVarLong(height);
+            } catch (IOException e) {
+                failure = e;
+            }
+        }
+    }
+
+    // The game ended at tick `tick`
+    public void gameEnded(long tick, int score, GameSimulation.EndReason reason) {
+        if (startEvent(END, tick)) {
+            try {
+                writeVarLong(score);
+                writeVarLong(reason.ordinal());
+            } catch (IOException e) {
+                failure = e;
+            }
+        }
+    }
+
+    // Write the event type and tick delta; false if recording has stopped
+    private boolean startEvent(int type, long tick) {
+        if (failure != null) {
+            return false;
+        }
+        try {
+            out.writeByte(type);
+            writeVarLong(tick - lastTick);
+            lastTick = tick;
+            return true;
+        } catch (IOException e) {
+            failure = e;
+            return false;
+        }
+    }
+
+    // Unsigned LEB128: seven bits per byte, high bit set on all but the last byte
+    private void writeVarLong(long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) (value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    // True once an I/O error has stopped the recording
+    public boolean checkError() {
+        return failure != null;
+    }
+
+    // Flush and close the file; rethrows the first recording error
+    @Override
+    public void close() throws IOException {
+        try {
+            out.close();
+        } catch (IOException e) {
+            if (failure == null) {
+                failure = e;
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+}
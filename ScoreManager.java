@@ -1,85 +1,235 @@
 import java.io.*; // Import necessary classes for file I/O
-import java.util.HashMap; // Import HashMap for storing high scores
-import java.util.Map; // Import Map interface
+import java.net.InetSocketAddress; // Import InetSocketAddress for the score server
+import java.nio.file.Path; // Import Path for replay files
+import java.util.ArrayList; // Import ArrayList for building leaderboard lines
+import java.util.List; // Import List interface
+import java.util.Map; // Import Map for the server's leaderboards
+import java.util.Queue; // Import Queue for scores waiting for the server
+import java.util.concurrent.ConcurrentHashMap; // Import ConcurrentHashMap for the server's leaderboards
+import java.util.concurrent.ConcurrentLinkedQueue; // Import ConcurrentLinkedQueue for the outbox
+import java.util.concurrent.Executors; // Import Executors for the background writer
+import java.util.concurrent.RejectedExecutionException; // Thrown when the writer has already shut down
+import java.util.concurrent.ScheduledExecutorService; // Import the scheduler used by the writer
+import java.util.concurrent.TimeUnit; // Import TimeUnit for the flush interval
 
+// Shared score service: leaderboards are cached in memory and written to disk by a background thread.
+// With -Dtilegame.scoreServer=host[:port] scores are also sent to a LeaderboardServer and its leaderboards are shown
+// instead of the local ones; whenever the server cannot be reached the local file is used.
 public class ScoreManager {
-    private static final String SCORE_FILE = "highscores.txt"; // File to store high scores
-    private Map<String, HighScoreEntry> highScores; // Map to hold high scores for different difficulties
+    private static final long FLUSH_INTERVAL_MILLIS = 1000; // How often queued scores are written
+    private static final int SERVER_CONNECT_TIMEOUT_MILLIS = 500; // Give up quickly on a server that is not there
+    // Wait long for answers: a late ack means the batch was stored, and resending it would store it twice
+    private static final int SERVER_READ_TIMEOUT_MILLIS = 15000;
+    private static final int SERVER_SHUTDOWN_TIMEOUT_MILLIS = 1000; // Last send on exit; unacked scores are in the local log
+    private static final long SERVER_RETRY_MILLIS = 5000; // Wait after a failure before trying the server again
+    private ScoreStore store; // Persistent leaderboards for all difficulties (null if the files could not be opened)
+    private final ScheduledExecutorService writer; // Single background thread that writes scores to disk
+
+    // Score server (all remote traffic runs on the writer thread, the game only reads the cached leaderboards)
+    private final InetSocketAddress server; // Server address, null when only the local file is used
+    private LeaderboardClient client; // Open connection, null when disconnected (writer thread only)
+    private long serverRetryAt = 0; // Earliest time (currentTimeMillis) to try again after a failure
+    private final Queue<LeaderboardClient.Submission> outbox = new ConcurrentLinkedQueue<>(); // Scores the server has not acked
+    private final Map<String, List<Leaderboard.Entry>> serverBoards = new ConcurrentHashMap<>(); // Newest leaderboards from the server
+
+    // Holder idiom: the instance (and its disk read) is created on first use
+    private static class Holder {
+        static final ScoreManager INSTANCE = new ScoreManager();
+    }
+
+    // Get the shared ScoreManager, loading the scores from disk on the first call
+    public static ScoreManager getInstance() {
+        return Holder.INSTANCE;
+    }
 
     // Constructor for ScoreManager
-    public ScoreManager() {
-        highScores = new HashMap<>(); // Initialize the HashMap to store high scores
+    private ScoreManager() {
         loadScores(); // Load existing high scores from file
+        server = parseServer(System.getProperty("tilegame.scoreServer"));
+        writer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "score-writer"); // Name the thread for debugging
+            thread.setDaemon(true); // Never keep the JVM alive
+            return thread;
+        });
+        writer.scheduleWithFixedDelay(this::flush, FLUSH_INTERVAL_MILLIS, FLUSH_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+        Runtime.getRuntime().addShutdownHook(new Thread(this::shutdown, "score-writer-shutdown")); // Write what is left on exit
+    }
+
+    // Score server address from the property, or null (local scores only) when it is unset or malformed
+    private static InetSocketAddress parseServer(String text) {
+        try {
+            return LeaderboardClient.parseAddress(text);
+        } catch (IllegalArgumentException e) {
+            System.err.println("Ignoring -Dtilegame.scoreServer=" + text + " (expected host[:port]), using local scores: "
+                    + e.getMessage());
+            return null;
+        }
     }
 
     // Load scores from file
     private void loadScores() {
-        try (BufferedReader reader = new BufferedReader(new FileReader(SCORE_FILE))) { // Use try-with-resources to auto-close reader
-            String line; // Variable to hold each line from the file
-            // Read each line until the end of the file
-            while ((line = reader.readLine()) != null) {
-                String[] parts = line.split(","); // Split the line by comma
-                // Check if the line has exactly three parts
-                if (parts.length == 3) {
-                    String difficulty = parts[0]; // First part is the difficulty
-                    String name = parts[1]; // Second part is the player's name
-                    int score = Integer.parseInt(parts[2]); // Third part is the score (converted to int)
-                    // Store the high score entry in the map
-                    highScores.put(difficulty, new HighScoreEntry(name, score));
-                }
-            }
+        try {
+            store = new ScoreStore(); // Reads the snapshot and replays the log (imports highscores.txt on first run)
         } catch (IOException e) {
-            e.printStackTrace(); // Print stack trace if an error occurs while reading the file
+            e.printStackTrace(); // Print stack trace if an error occurs while reading the files
         }
     }
 
-    // Save score to file
+    // Save score (visible immediately, written to disk by the background writer)
     public void saveScore(String difficulty, String name, int score) {
-        // Get the current high score entry for the specified difficulty
-        HighScoreEntry currentHighScore = highScores.get(difficulty);
-        // Check if the new score is higher than the current high score
-        if (currentHighScore == null || score > currentHighScore.score) {
-            // Update the high score entry with the new score
-            highScores.put(difficulty, new HighScoreEntry(name, score));
-            saveScoresToFile(); // Save updated scores to file
+        if (store != null) {
+            store.add(difficulty, name, score); // Kept only if the score makes the top N
+        }
+        if (server != null && LeaderboardServer.isValidDifficulty(difficulty)) {
+            outbox.add(new LeaderboardClient.Submission(difficulty, name, score)); // Sent by the writer thread
+        } // The server only takes plain difficulty names (no spaces or punctuation); others stay local
+    }
+
+    // Save a score only if its replay plays back to the same score; the replay is read and played back on the
+    // writer thread, so the caller (usually the EDT) never waits for it
+    public void saveVerifiedScore(String difficulty, String name, int score, Path replay) {
+        try {
+            writer.execute(() -> verifyAndSave(difficulty, name, score, replay));
+        } catch (RejectedExecutionException e) {
+            verifyAndSave(difficulty, name, score, replay); // Shutting down, no writer thread left
+        }
+    }
+
+    // Play the replay back headless and save the score if it matches (writer thread)
+    private void verifyAndSave(String difficulty, String name, int score, Path replay) {
+        if (!ReplayPlayer.verify(replay, difficulty, score)) {
+            System.err.println("Rejected score " + score + " for " + name + ": replay " + replay + " does not reproduce it");
+            return;
         }
+        saveScore(difficulty, name, score);
     }
 
-    // Save all high scores to file
-    private void saveScoresToFile() {
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(SCORE_FILE))) { // Use try-with-resources to auto-close writer
-            // Iterate over each entry in the highScores map
-            for (Map.Entry<String, HighScoreEntry> entry : highScores.entrySet()) {
-                String difficulty = entry.getKey(); // Get the difficulty from the entry
-                HighScoreEntry highScoreEntry = entry.getValue(); // Get the HighScoreEntry object
-                // Write the difficulty, name, and score to the file
-                writer.write(difficulty + "," + highScoreEntry.name + "," + highScoreEntry.score);
-                writer.newLine(); // Write a new line after each entry
+    // Write queued scores to disk, then exchange scores with the server (background writer thread)
+    private void flush() {
+        writeLocal();
+        syncServer(false);
+    }
+
+    // Write queued scores to the local log
+    private void writeLocal() {
+        try {
+            if (store != null) {
+                store.flush(); // Coalesces everything queued since the last flush into one write
             }
         } catch (IOException e) {
             e.printStackTrace(); // Print stack trace if an error occurs while writing to the file
         }
     }
 
+    // Send the outbox to the score server and fetch its leaderboards; on failure fall back to the local ones.
+    // On exit (shuttingDown) only the outbox is sent, and the ack is only waited for briefly.
+    private synchronized void syncServer(boolean shuttingDown) {
+        if (server == null || System.currentTimeMillis() < serverRetryAt) {
+            return;
+        }
+        int readTimeout = shuttingDown ? SERVER_SHUTDOWN_TIMEOUT_MILLIS : SERVER_READ_TIMEOUT_MILLIS;
+        try {
+            if (client == null) {
+                client = new LeaderboardClient(server.getHostString(), server.getPort(), SERVER_CONNECT_TIMEOUT_MILLIS, readTimeout);
+            } else {
+                client.setReadTimeout(readTimeout);
+            }
+            List<LeaderboardClient.Submission> batch = new ArrayList<>(outbox); // Only this thread removes entries
+            int rejected = client.submitAll(batch); // One write, one ack for the whole batch
+            for (int i = 0; i < batch.size(); i++) {
+                outbox.poll(); // Stored on the server, or rejected and never worth resending
+            }
+            if (rejected > 0) {
+                System.err.println("Score server rejected " + rejected + " of " + batch.size() + " scores");
+            }
+            if (shuttingDown) {
+                return; // Nobody will look at the leaderboards again
+            }
+            for (String difficulty : DifficultyProfile.getNames()) {
+                if (LeaderboardServer.isValidDifficulty(difficulty)) { // Other profiles only have local leaderboards
+                    serverBoards.put(difficulty, client.top(difficulty, ScoreStore.DEFAULT_TOP_N));
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            if (client != null || serverRetryAt == 0) {
+                System.err.println("Score server " + server.getHostString() + ":" + server.getPort() + " unavailable, using local scores: "
+                        + e.getMessage());
+            }
+            closeClient();
+            serverBoards.clear(); // Show the local leaderboards until the server is back
+            serverRetryAt = System.currentTimeMillis() + SERVER_RETRY_MILLIS;
+        }
+    }
+
+    private void closeClient() {
+        if (client != null) {
+            try {
+                client.close();
+            } catch (IOException e) {
+                // Already broken
+            }
+            client = null;
+        }
+    }
+
+    // Leaderboard to show for a difficulty: the server's when it is reachable, otherwise the local one
+    private List<Leaderboard.Entry> getBoard(String difficulty) {
+        List<Leaderboard.Entry> remote = serverBoards.get(difficulty);
+        if (remote != null) {
+            return remote;
+        }
+        return store != null ? store.getBoard(difficulty).getTop() : new ArrayList<>();
+    }
+
+    // Stop the background writer and write every queued score
+    public void shutdown() {
+        writer.shutdown(); // No more scheduled flushes
+        boolean idle = false;
+        try {
+            idle = writer.awaitTermination(5, TimeUnit.SECONDS); // Let a running flush finish
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt(); // Restore interrupted status
+        }
+        writeLocal(); // Write whatever is still queued
+        if (idle) {
+            syncServer(true); // Else the writer is still waiting on the server; the scores are in the local log
+            closeClient();
+        }
+        try {
+            if (store != null) {
+                store.close(); // Release the log file
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
     // Get high score for a specific difficulty
     public String getHighScore(String difficulty) {
-        HighScoreEntry entry = highScores.get(difficulty); // Retrieve the high score entry for the specified difficulty
+        List<Leaderboard.Entry> board = getBoard(difficulty);
+        Leaderboard.Entry entry = board.isEmpty() ? null : board.get(0); // Retrieve the best entry for the specified difficulty
         // Check if the entry exists
         if (entry != null) {
-            return entry.name + " : " + entry.score; // Return the player's name and score
+            return entry.getName() + " : " + entry.getScore(); // Return the player's name and score
         }
         return "No score yet"; // Return message if no score exists for the difficulty
     }
 
-    // Inner class to hold high score entries
-    private static class HighScoreEntry {
-        String name; // Player's name
-        int score; // Player's score
+    // Get the best score value for a specific difficulty (0 if there is none)
+    public int getHighScoreValue(String difficulty) {
+        List<Leaderboard.Entry> board = getBoard(difficulty);
+        int best = board.isEmpty() ? 0 : board.get(0).getScore();
+        Leaderboard.Entry local = store != null ? store.getBoard(difficulty).getBest() : null; // Not on the server yet
+        return local != null ? Math.max(best, local.getScore()) : best;
+    }
 
-        // Constructor for HighScoreEntry
-        HighScoreEntry(String name, int score) {
-            this.name = name; // Set the player's name
-            this.score = score; // Set the player's score
+    // Get the leaderboard for a specific difficulty, best first, formatted as "1. name : score"
+    public List<String> getTopScores(String difficulty) {
+        List<String> lines = new ArrayList<>();
+        int rank = 1;
+        for (Leaderboard.Entry entry : getBoard(difficulty)) {
+            lines.add(rank++ + ". " + entry.getName() + " : " + entry.getScore());
         }
+        return lines;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,313 @@
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.CRC32;
+
+// Crash-safe high-score storage: an append-only log on top of an atomically replaced snapshot.
+// Scores become visible in memory as soon as they are added; flush() makes them durable. Disk I/O runs under
+// its own lock so readers and add() are never blocked behind an fsync.
+public class ScoreStore implements Closeable {
+    public static final int DEFAULT_TOP_N = 10; // Entries kept per difficulty
+    private static final int DEFAULT_COMPACT_EVERY = 100; // Log records written before the log is folded into the snapshot
+    private static final String SNAPSHOT_HEADER = "#tilegame-scores v1 "; // First line of the snapshot, followed by its sequence
+    private static final String SNAPSHOT_FILE = "highscores.dat"; // Compacted leaderboards
+    private static final String LOG_FILE = "highscores.log"; // Records written since the last compaction
+    private static final String LEGACY_FILE = "highscores.txt"; // File written by older versions of the game
+
+    private final Path snapshotFile; // Path of the snapshot
+    private final Path logFile; // Path of the append-only log
+    private final Path legacyFile; // Path of the legacy score file
+    private final int topN; // Entries kept per difficulty
+    private final int compactEvery; // Log records allowed before compaction
+    private final Map<String, Leaderboard> boards = new ConcurrentHashMap<>(); // Leaderboards by difficulty
+    private final Object ioLock = new Object(); // Serializes all file access
+    private final StringBuilder pendingRecords = new StringBuilder(); // Log lines added but not yet written (guarded by this)
+    private int pendingCount = 0; // Number of lines in pendingRecords (guarded by this)
+    private long lastSequence = 0; // Sequence number of the newest record (guarded by this)
+    private long snapshotSequence = 0; // Newest sequence number contained in the snapshot (guarded by ioLock)
+    private int logRecords = 0; // Records in the log since the last compaction (guarded by ioLock)
+    private FileChannel logChannel; // Open log, created on first append (guarded by ioLock)
+
+    // Constructor for ScoreStore using the working directory and default limits
+    public ScoreStore() throws IOException {
+        this(Paths.get("."), DEFAULT_TOP_N, DEFAULT_COMPACT_EVERY);
+    }
+
+    // Constructor for ScoreStore
+    public ScoreStore(Path directory, int topN, int compactEvery) throws IOException {
+        this.snapshotFile = directory.resolve(SNAPSHOT_FILE);
+        this.logFile = directory.resolve(LOG_FILE);
+        this.legacyFile = directory.resolve(LEGACY_FILE);
+        this.topN = topN;
+        this.compactEvery = compactEvery;
+        load(); // Read the snapshot and replay the log
+    }
+
+    // Leaderboard for a difficulty (empty if nothing was recorded yet)
+    public Leaderboard getBoard(String difficulty) {
+        return boards.computeIfAbsent(difficulty, d -> new Leaderboard(topN));
+    }
+
+    // Leaderboard for a difficulty, or null if nothing was recorded for it (never creates one)
+    public Leaderboard findBoard(String difficulty) {
+        return boards.get(difficulty);
+    }
+
+    // All difficulties that have at least one score
+    public Map<String, Leaderboard> getBoards() {
+        return Collections.unmodifiableMap(new TreeMap<>(boards));
+    }
+
+    // Record a score and write it to disk before returning. Returns true if it was kept.
+    public boolean record(String difficulty, String name, int score) throws IOException {
+        boolean kept = add(difficulty, name, score) != null;
+        flush();
+        return kept;
+    }
+
+    // Add a score in memory and queue it for the next flush; only scores that make the top N are kept.
+    // Returns the new entry, or null if the score did not make the leaderboard.
+    public synchronized Leaderboard.Entry add(String difficulty, String name, int score) {
+        Leaderboard board = getBoard(difficulty);
+        if (!board.qualifies(score)) {
+            return null; // Would not make the leaderboard, nothing to write
+        }
+        String cleanName = sanitize(name);
+        long sequence = ++lastSequence;
+        Leaderboard.Entry entry = new Leaderboard.Entry(cleanName, score, sequence);
+        board.offer(entry);
+        String body = sequence + "," + difficulty + "," + cleanName + "," + score;
+        pendingRecords.append(body).append(',').append(Long.toHexString(checksum(body))).append('\n');
+        pendingCount++;
+        return entry;
+    }
+
+    // Number of scores added but not yet written to disk
+    public synchronized int getPendingCount() {
+        return pendingCount;
+    }
+
+    // Write every pending score to the log with a single fsync, compacting when the log has grown
+    public void flush() throws IOException {
+        synchronized (ioLock) {
+            String batch;
+            int count;
+            synchronized (this) {
+                batch = pendingRecords.toString(); // Take the whole batch at once
+                count = pendingCount;
+                pendingRecords.setLength(0);
+                pendingCount = 0;
+            }
+            if (count > 0) {
+                FileChannel log = openLog();
+                writeFully(log, batch);
+                log.force(false); // One fsync for the whole batch
+                logRecords += count;
+            }
+            if (logRecords >= compactEvery) {
+                compactLocked(); // Fold the log into a new snapshot
+            }
+        }
+    }
+
+    // Write all leaderboards to a new snapshot, atomically replace the old one and empty the log
+    public void compact() throws IOException {
+        synchronized (ioLock) {
+            compactLocked();
+        }
+    }
+
+    // Compaction body (caller holds ioLock)
+    private void compactLocked() throws IOException {
+        Path temp = snapshotFile.resolveSibling(SNAPSHOT_FILE + ".tmp");
+        StringBuilder out = new StringBuilder();
+        long sequence;
+        synchronized (this) {
+            sequence = lastSequence; // Every entry up to here is in the boards
+            out.append(SNAPSHOT_HEADER).append(sequence).append('\n');
+            for (Map.Entry<String, Leaderboard> board : boards.entrySet()) {
+                for (Leaderboard.Entry entry : board.getValue().getTop()) {
+                    out.append(board.getKey()).append(',').append(entry.name).append(',')
+                            .append(entry.score).append(',').append(entry.sequence).append('\n');
+                }
+            }
+        }
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            writeFully(channel, out.toString());
+            channel.force(true); // The new snapshot is on disk before it replaces the old one
+        }
+        try {
+            Files.move(temp, snapshotFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, snapshotFile, StandardCopyOption.REPLACE_EXISTING); // Best effort on odd file systems
+        }
+        syncDirectory(); // Make the rename itself durable
+        snapshotSequence = sequence;
+
+        // Records up to snapshotSequence are ignored on load, so a crash before this point is harmless
+        FileChannel log = openLog();
+        log.truncate(0);
+        log.force(true);
+        logRecords = 0;
+    }
+
+    // Close the log file (pending scores are not written, call flush() first)
+    @Override
+    public void close() throws IOException {
+        synchronized (ioLock) {
+            if (logChannel != null) {
+                logChannel.close();
+                logChannel = null;
+            }
+        }
+    }
+
+    // Load the snapshot, replay newer log records, or import the legacy file on first run
+    private void load() throws IOException {
+        boolean hasSnapshot = Files.exists(snapshotFile);
+        boolean hasLog = Files.exists(logFile);
+        if (hasSnapshot) {
+            loadSnapshot();
+        }
+        if (hasLog) {
+            replayLog();
+        }
+        if (!hasSnapshot && !hasLog && Files.exists(legacyFile)) {
+            importLegacy();
+        }
+    }
+
+    // Read every entry of the snapshot
+    private void loadSnapshot() throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(snapshotFile, StandardCharsets.UTF_8)) {
+            String header = reader.readLine();
+            if (header == null || !header.startsWith(SNAPSHOT_HEADER)) {
+                throw new IOException("Not a score snapshot: " + snapshotFile);
+            }
+            snapshotSequence = Long.parseLong(header.substring(SNAPSHOT_HEADER.length()).trim());
+            lastSequence = snapshotSequence;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] parts = line.split(",");
+                if (parts.length == 4) {
+                    getBoard(parts[0]).offer(new Leaderboard.Entry(parts[1], Integer.parseInt(parts[2]), Long.parseLong(parts[3])));
+                }
+            }
+        }
+    }
+
+    // Replay log records newer than the snapshot; a torn or corrupt tail is cut off
+    private void replayLog() throws IOException {
+        byte[] data = Files.readAllBytes(logFile);
+        int start = 0; // Start of the current line
+        int validLength = 0; // Length of the log prefix made of complete, valid records
+        for (int i = 0; i < data.length; i++) {
+            if (data[i] != '\n') {
+                continue;
+            }
+            String line = new String(data, start, i - start, StandardCharsets.UTF_8);
+            if (!replayRecord(line)) {
+                break; // Anything after a bad record is not trusted
+            }
+            start = i + 1;
+            validLength = start;
+        }
+        if (validLength < data.length) {
+            try (FileChannel channel = FileChannel.open(logFile, StandardOpenOption.WRITE)) {
+                channel.truncate(validLength); // Drop the partial record left by a crash
+                channel.force(true);
+            }
+        }
+    }
+
+    // Apply one log record; returns false if it is malformed or fails its checksum
+    private boolean replayRecord(String line) {
+        int crcStart = line.lastIndexOf(',');
+        if (crcStart < 0) {
+            return false;
+        }
+        String body = line.substring(0, crcStart);
+        String[] parts = body.split(",");
+        if (parts.length != 4) {
+            return false;
+        }
+        try {
+            if (Long.parseLong(line.substring(crcStart + 1), 16) != checksum(body)) {
+                return false; // Torn or corrupt record
+            }
+            long sequence = Long.parseLong(parts[0]);
+            lastSequence = Math.max(lastSequence, sequence);
+            if (sequence > snapshotSequence) {
+                getBoard(parts[1]).offer(new Leaderboard.Entry(parts[2], Integer.parseInt(parts[3]), sequence));
+                logRecords++;
+            }
+            return true;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    // Import the single-entry-per-difficulty file written by older versions, then write a snapshot
+    private void importLegacy() throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(legacyFile, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] parts = line.split(",");
+                if (parts.length == 3) {
+                    try {
+                        getBoard(parts[0]).offer(new Leaderboard.Entry(parts[1], Integer.parseInt(parts[2]), ++lastSequence));
+                    } catch (NumberFormatException e) {
+                        // Skip lines the old format could not have produced
+                    }
+                }
+            }
+        }
+        compact(); // Persist the imported scores in the new format
+    }
+
+    // Open the log for appending, creating it if needed
+    private FileChannel openLog() throws IOException {
+        if (logChannel == null) {
+            logChannel = FileChannel.open(logFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        }
+        logChannel.position(logChannel.size()); // Always append at the end
+        return logChannel;
+    }
+
+    // Write the whole string to the channel
+    private static void writeFully(FileChannel channel, String text) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(text.getBytes(StandardCharsets.UTF_8));
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    // Flush the directory entry after a rename (not supported on every platform)
+    private void syncDirectory() {
+        Path directory = snapshotFile.toAbsolutePath().getParent();
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // Directories cannot be opened this way on some platforms (e.g. Windows)
+        }
+    }
+
+    // CRC32 of a record body
+    private static long checksum(String body) {
+        CRC32 crc = new CRC32();
+        crc.update(body.getBytes(StandardCharsets.UTF_8));
+        return crc.getValue();
+    }
+
+    // Names cannot contain the field or record separators
+    private static String sanitize(String name) {
+        return name.trim().replace(',', ' ').replace('\n', ' ').replace('\r', ' ');
+    }
+}
@@ -0,0 +1,35 @@
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Lock-free triple buffer: one writer fills snapshots, one reader always gets the newest complete one
+public class SnapshotExchange {
+    private static final int FRESH = 4; // Bit set when the middle buffer holds a snapshot the reader has not seen
+    private final GameSnapshot[] buffers = new GameSnapshot[3]; // The three reusable snapshots
+    private final AtomicInteger middle = new AtomicInteger(1); // Index of the buffer being handed over (plus FRESH bit)
+    private int back = 0; // Buffer owned by the writer
+    private int front = 2; // Buffer owned by the reader
+
+    // Constructor for SnapshotExchange
+    public SnapshotExchange(int capacity) {
+        for (int i = 0; i < buffers.length; i++) {
+            buffers[i] = new GameSnapshot(capacity); // Allocate all snapshots up front
+        }
+    }
+
+    // Snapshot the writer should fill next (writer thread only)
+    public GameSnapshot getBackBuffer() {
+        return buffers[back];
+    }
+
+    // Hand the filled back buffer to the reader and take a free one (writer thread only)
+    public void publish() {
+        back = middle.getAndSet(back | FRESH) & 3;
+    }
+
+    // Newest complete snapshot; stays valid until the next call (reader thread only)
+    public GameSnapshot acquire() {
+        if ((middle.get() & FRESH) != 0) {
+            front = middle.getAndSet(front) & 3; // Swap in the fresh snapshot
+        }
+        return buffers[front];
+    }
+}
@@ -0,0 +1,248 @@
+import java.awt.Component;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.ThreadMXBean;
+import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CountDownLatch;
+import javax.swing.JFrame;
+import javax.swing.SwingUtilities;
+
+// Soak test: a BotPlayer plays TileGame back to back, thousands of games, through the real end-of-game path
+// (endGame, the game-over dialogs answered by script, the restart action), to find leaks and slowdowns that only
+// show after hours of play. After every game it writes heap, threads, GC and frame/tick times to a CSV; every few
+// games it forces a GC first, so heap growth is measured on live data only. The summary compares start and end.
+public class SoakTest {
+    private static final String DEFAULT_BOT = "0.995,15,20"; // Slips about once in 200 tiles, so games also end early
+
+    private final DifficultyProfile profile; // Profile every game is played with
+    private final int games; // Games to play
+    private final int sampleEvery; // Games between forced GCs
+    private final JFrame frame; // Window the games are shown in, or null when headless
+    private final PrintWriter csv; // One row per game
+    private final CountDownLatch done = new CountDownLatch(1); // Released after the last game
+    private final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+    private final ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+    private final long startNanos = System.nanoTime();
+
+    // Results, only touched on the EDT
+    private Thread gameThread; // Loop thread of the current game
+    private int played = 0; // Games finished
+    private long scoreTotal = 0;
+    private final Map<GameSimulation.EndReason, Integer> endReasons = new EnumMap<>(GameSimulation.EndReason.class);
+    private final double[] frameAverage; // Average frame time per game in ms
+    private final double[] frameP99; // 99th percentile frame time per game in ms
+    private final double[] tickAverage; // Average tick time per game in ms
+    private final int[] threads; // Live threads after each game
+    private final List<double[]> heapAfterGc = new ArrayList<>(); // {game, MB used} after each forced GC
+    private Map<String, Integer> baselineThreads; // Thread names (digits folded) after the first game
+
+    // Constructor for SoakTest
+    private SoakTest(DifficultyProfile profile, int games, int sampleEvery, JFrame frame, PrintWriter csv) {
+        this.profile = profile;
+        this.games = games;
+        this.sampleEvery = Math.max(1, sampleEvery);
+        this.frame = frame;
+        this.csv = csv;
+        this.frameAverage = new double[games];
+        this.frameP99 = new double[games];
+        this.tickAverage = new double[games];
+        this.threads = new int[games];
+        csv.println("game,seconds,score,end_reason,frame_avg_ms,frame_p99_ms,frame_max_ms,tick_avg_ms,tick_p99_ms,"
+                + "heap_used_mb,after_gc,threads,gc_runs,gc_ms");
+    }
+
+    // Dialogs answered by script: never save a score, restart until every game was played
+    private final GameDialogs scripted = new GameDialogs() {
+        @Override
+        public String askName(Component parent, String message, String title) {
+            return null;
+        }
+
+        @Override
+        public boolean askRestart(Component parent) {
+            return played + 1 < games; // The game asking is not counted yet
+        }
+    };
+
+    // Start the next game (EDT)
+    private void startGame() {
+        TileGame game = new TileGame(profile, Integer.getInteger("tilegame.tickRate", 60), Integer.getInteger("tilegame.maxFps", 120));
+        game.setDialogs(scripted);
+        game.setRestartAction(() -> {
+            finished(game);
+            startGame();
+        }, () -> {
+            finished(game);
+            done.countDown();
+        });
+        if (frame != null) {
+            frame.getContentPane().removeAll(); // Drop the previous game, as MainMenu does
+            frame.add(game);
+            frame.revalidate();
+            frame.repaint();
+            game.requestFocusInWindow(); // Losing focus pauses the game, so leave the window in front
+        }
+        gameThread = new Thread(game, "tile-game-" + (played + 1));
+        gameThread.start();
+    }
+
+    // Record one finished game (EDT, from its restart or quit action)
+    private void finished(TileGame game) {
+        try {
+            gameThread.join(1000); // The loop returns right after endGame; don't count it as a live thread
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        int index = played++;
+        GameMetrics metrics = game.getMetrics();
+        boolean forceGc = played % sampleEvery == 0 || played == 1 || played == games;
+        if (forceGc) {
+            System.gc(); // Only live data is left, so growth here is a leak
+        }
+        double heapMb = memory.getHeapMemoryUsage().getUsed() / (1024.0 * 1024.0);
+        if (forceGc) {
+            heapAfterGc.add(new double[] {played, heapMb});
+        }
+        frameAverage[index] = metrics.getFrameTime().getAverageMillis();
+        frameP99[index] = metrics.getFrameTime().getPercentileMillis(99);
+        tickAverage[index] = metrics.getTickTime().getAverageMillis();
+        threads[index] = threadBean.getThreadCount();
+        scoreTotal += game.getScore();
+        endReasons.merge(game.getEndReason(), 1, Integer::sum);
+        if (baselineThreads == null) {
+            baselineThreads = threadNames();
+        }
+        double seconds = (System.nanoTime() - startNanos) / 1e9;
+        csv.printf(Locale.ROOT, "%d,%.1f,%d,%s,%.3f,%.3f,%.3f,%.4f,%.4f,%.2f,%b,%d,%d,%d%n", played, seconds, game.getScore(),
+                game.getEndReason(), frameAverage[index], frameP99[index], metrics.getFrameTime().getMaxMillis(), tickAverage[index],
+                metrics.getTickTime().getPercentileMillis(99), heapMb, forceGc, threads[index], AllocationCounter.getGcCount(),
+                AllocationCounter.getGcTimeMillis());
+        csv.flush(); // Keep the data if the run is stopped
+        if (forceGc) {
+            System.out.printf(Locale.ROOT, "[soak] game %d/%d after %.0f s: heap %.1f MB after GC, %d threads, frame avg %.2f ms p99 %.2f ms%n",
+                    played, games, seconds, heapMb, threads[index], frameAverage[index], frameP99[index]);
+        }
+    }
+
+    // Live threads by name with digits folded, so "tile-game-12" and "tile-game-13" count as the same kind
+    private static Map<String, Integer> threadNames() {
+        Map<String, Integer> names = new TreeMap<>();
+        for (Thread thread : Thread.getAllStackTraces().keySet()) {
+            names.merge(thread.getName().replaceAll("\\d+", "#"), 1, Integer::sum);
+        }
+        return names;
+    }
+
+    // Average of values[from, to)
+    private static double mean(double[] values, int from, int to) {
+        double sum = 0;
+        for (int i = from; i < to; i++) {
+            sum += values[i];
+        }
+        return to > from ? sum / (to - from) : 0;
+    }
+
+    // Least-squares slope of y over x
+    private static double slope(List<double[]> points) {
+        int n = points.size();
+        if (n < 2) {
+            return 0;
+        }
+        double sumX = 0, sumY = 0, sumXY = 0, sumXX = 0;
+        for (double[] p : points) {
+            sumX += p[0];
+            sumY += p[1];
+            sumXY += p[0] * p[1];
+            sumXX += p[0] * p[0];
+        }
+        double denominator = n * sumXX - sumX * sumX;
+        return denominator == 0 ? 0 : (n * sumXY - sumX * sumY) / denominator;
+    }
+
+    // Compare the start of the run with its end
+    private void printSummary() {
+        double seconds = (System.nanoTime() - startNanos) / 1e9;
+        System.out.printf(Locale.ROOT, "[soak] %d games of %s in %.0f s, average score %.1f, ended by %s%n", played, profile,
+                seconds, played > 0 ? scoreTotal / (double) played : 0.0, endReasons);
+        if (played == 0) {
+            return;
+        }
+        double[] firstHeap = heapAfterGc.get(0);
+        double[] lastHeap = heapAfterGc.get(heapAfterGc.size() - 1);
+        System.out.printf(Locale.ROOT, "[soak] heap after GC: %.1f MB after game %d, %.1f MB after game %d, trend %+.2f MB per 1000 games%n",
+                firstHeap[1], (int) firstHeap[0], lastHeap[1], (int) lastHeap[0], slope(heapAfterGc) * 1000);
+
+        int window = Math.max(1, played / 10); // First and last tenth of the run
+        int maxThreads = 0;
+        for (int i = 0; i < played; i++) {
+            maxThreads = Math.max(maxThreads, threads[i]);
+        }
+        System.out.printf(Locale.ROOT, "[soak] threads: %d after the first game, %d after the last, at most %d%n",
+                threads[0], threads[played - 1], maxThreads);
+        Map<String, Integer> now = threadNames();
+        for (Map.Entry<String, Integer> entry : now.entrySet()) {
+            int before = baselineThreads.getOrDefault(entry.getKey(), 0);
+            if (entry.getValue() > before) {
+                System.out.println("[soak]   more threads named " + entry.getKey() + ": " + before + " -> " + entry.getValue());
+            }
+        }
+        printDrift("frame avg", frameAverage, window);
+        printDrift("frame p99", frameP99, window);
+        printDrift("tick avg", tickAverage, window);
+    }
+
+    // Average of a per-game value over the first and the last window of games
+    private void printDrift(String label, double[] values, int window) {
+        double first = mean(values, 0, window);
+        double last = mean(values, played - window, played);
+        System.out.printf(Locale.ROOT, "[soak] %s: %.3f ms over the first %d games, %.3f ms over the last %d (%+.1f%%)%n", label,
+                first, window, last, window, first > 0 ? (last - first) / first * 100 : 0.0);
+    }
+
+    // Usage: java SoakTest [games] [difficulty] [gameSeconds] [bot] [sampleEvery] [csvFile] [window]
+    //   bot is "accuracy,reactionMs,jitterMs"; "window" shows the games (keep it focused, losing focus pauses the game)
+    //   Replays and metric exports are off unless -Dtilegame.replayDir / -Dtilegame.metricsDir are given
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int games = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        String difficulty = args.length > 1 ? args[1] : "Medium";
+        int gameSeconds = args.length > 2 ? Integer.parseInt(args[2]) : 20;
+        String bot = args.length > 3 ? args[3] : DEFAULT_BOT;
+        int sampleEvery = args.length > 4 ? Integer.parseInt(args[4]) : 25;
+        String csvFile = args.length > 5 ? args[5] : "soak.csv";
+        boolean window = args.length > 6 && args[6].equals("window");
+        if (!window) {
+            System.setProperty("java.awt.headless", "true"); // No display needed; the loop still runs and repaints
+        }
+        System.setProperty("tilegame.bot", bot); // Every TileGame gets its own BotPlayer
+        DifficultyProfile profile = DifficultyProfile.get(difficulty).withGameSeconds(gameSeconds);
+        AssetManager.getInstance().preload(AssetManager.GAME_ASSETS); // So the first game doesn't load from disk
+
+        try (PrintWriter csv = new PrintWriter(new FileWriter(csvFile))) {
+            JFrame frame = null;
+            if (window) {
+                frame = new JFrame("Tile Game soak test");
+                frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+                frame.setSize(640, 480);
+                frame.setVisible(true);
+            }
+            SoakTest soak = new SoakTest(profile, games, sampleEvery, frame, csv);
+            System.out.println("[soak] " + games + " games of " + profile + ", " + gameSeconds + " s each, "
+                    + BotPlayer.parse(bot, 0) + ", results in " + csvFile);
+            SwingUtilities.invokeLater(soak::startGame);
+            soak.done.await();
+            SwingUtilities.invokeAndWait(soak::printSummary); // Results are owned by the EDT
+        } catch (InvocationTargetException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+        System.exit(0); // The EDT and the score writer would keep the JVM alive
+    }
+}
@@ -0,0 +1,113 @@
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// All tile sprites packed into one image at their exact render size, built once when a game starts. Drawing a tile
+// is an unscaled blit of its cell out of the shared image, found through a table indexed by the tile's key, so
+// every tile comes from the same texture and nothing is scaled per frame.
+public class SpriteAtlas {
+    private static final int PADDING = 1; // Transparent gap between cells, so scaled views never bleed into a neighbour
+    private static final int KEYS = 128; // Lookup table covers ASCII keys
+    private static final int CACHED_SIZES = 8; // Atlases kept for recently used resolutions
+
+    // Tile atlases by key set and pixel size, least recently used first; a resize back to a known size costs nothing
+    private static final Map<String, SpriteAtlas> CACHE = new LinkedHashMap<String, SpriteAtlas>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, SpriteAtlas> eldest) {
+            return size() > CACHED_SIZES; // Dropped, not flushed: a renderer may still be drawing it
+        }
+    };
+
+    private final int spriteWidth; // Size of every cell
+    private final int spriteHeight;
+    private final byte[] slotByKey = new byte[KEYS]; // Cell index for each key, -1 if there is no sprite
+    private final int[] slotX; // Top-left corner of each cell in the atlas
+    private final int[] slotY;
+    private final AcceleratedImage image; // Packed sprites, kept in VRAM when possible
+
+    // Pack one sprite per key (keys.charAt(i) uses sources[i]), each scaled once to width x height
+    public SpriteAtlas(String keys, Image[] sources, int width, int height) {
+        if (keys.length() != sources.length || keys.isEmpty() || keys.length() > Byte.MAX_VALUE) {
+            throw new IllegalArgumentException("Need one image per key: " + keys);
+        }
+        this.spriteWidth = width;
+        this.spriteHeight = height;
+        int count = keys.length();
+        int columns = (int) Math.ceil(Math.sqrt(count)); // Roughly square, so the atlas stays within texture limits
+        int rows = (count + columns - 1) / columns;
+        int atlasWidth = columns * (width + PADDING);
+        int atlasHeight = rows * (height + PADDING);
+        slotX = new int[count];
+        slotY = new int[count];
+        Arrays.fill(slotByKey, (byte) -1);
+
+        BufferedImage packed = new BufferedImage(atlasWidth, atlasHeight, BufferedImage.TYPE_INT_ARGB); // Starts transparent
+        Graphics2D g = packed.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            for (int i = 0; i < count; i++) {
+                char key = keys.charAt(i);
+                if (key >= KEYS) {
+                    throw new IllegalArgumentException("Sprite key out of range: " + key);
+                }
+                slotByKey[key] = (byte) i;
+                slotX[i] = (i % columns) * (width + PADDING);
+                slotY[i] = (i / columns) * (height + PADDING);
+                if (sources[i] != null) {
+                    g.drawImage(sources[i], slotX[i], slotY[i], width, height, null); // Scale once, here
+                }
+            }
+        } finally {
+            g.dispose();
+        }
+        image = new AcceleratedImage(packed, atlasWidth, atlasHeight, Transparency.TRANSLUCENT); // Copied 1:1 to VRAM
+    }
+
+    // Atlas of the tile images (a.png, s.png, ... for each key) at one size, built once per resolution and shared
+    public static SpriteAtlas forTiles(String keys, int tileSize) {
+        synchronized (CACHE) {
+            return CACHE.computeIfAbsent(keys + "@" + tileSize, k -> buildTiles(keys, tileSize));
+        }
+    }
+
+    // Scale the tile images from the shared asset cache into a new atlas
+    private static SpriteAtlas buildTiles(String keys, int tileSize) {
+        AssetManager assets = AssetManager.getInstance();
+        Image[] sources = new Image[keys.length()];
+        for (int i = 0; i < sources.length; i++) {
+            sources[i] = assets.getImage(keys.charAt(i) + ".png");
+        }
+        return new SpriteAtlas(keys, sources, tileSize, tileSize);
+    }
+
+    // Check if a key has a sprite
+    public boolean contains(char key) {
+        return key < KEYS && slotByKey[key] >= 0;
+    }
+
+    // Draw the sprite for a key with its top-left corner at (x, y); keys without a sprite draw nothing
+    public void draw(Graphics g, char key, int x, int y, GraphicsConfiguration gc) {
+        if (key >= KEYS) {
+            return;
+        }
+        int slot = slotByKey[key];
+        if (slot >= 0) {
+            image.drawRegion(g, x, y, slotX[slot], slotY[slot], spriteWidth, spriteHeight, gc);
+        }
+    }
+
+    public int getSpriteWidth() {
+        return spriteWidth;
+    }
+
+    public int getSpriteHeight() {
+        return spriteHeight;
+    }
+
+    // Release the accelerated copy of the packed image (drawing again uploads it again)
+    public void flush() {
+        image.flush();
+    }
+}
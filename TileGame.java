@@ -1,336 +1,498 @@
 import java.awt.*;
+import java.awt.event.FocusAdapter;
+import java.awt.event.FocusEvent;
 import java.awt.event.KeyAdapter;
 import java.awt.event.KeyEvent; 
-import java.util.ArrayList;
-import java.util.LinkedList;
-import java.util.List;
-import java.util.Queue;
-import java.util.Random; 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
 import javax.swing.*; 
 
-public class TileGame extends JPanel implements Runnable {
+// Swing front end for GameSimulation: runs the real-time loop, forwards input and draws the published state
+public class TileGame extends JPanel implements Runnable, ActiveRenderer.FramePainter {
 
-    private final List<Tile> tiles; // List to hold active tiles
-    private final Queue<Character> order; // Queue to hold the order of keys to be pressed
-    private int score = 0; // Player's score
-    private boolean running = true; 
-    private long lastTileTime = 0; // Timestamp for the last tile generation
-    private long tileGenerationInterval; 
-    private final int tileSize = 150; // Size of each tile
-    private final int gap = 5;
+    // The simulation is only touched by the thread running run()
+    private final GameSimulation simulation; // Headless game core
+    private volatile boolean running = true; 
     private Image backgroundImage;
-    private Image tileImageA;
-    private Image tileImageS; 
-    private Image tileImageD; 
-    private Image tileImageF; 
-    private Image tileImageB; 
-    private Image bonusImage; 
 
-    // Timer variables
-    private int remainingTime = 120; // Remaining time in seconds (2 minutes)
-    private boolean timerRunning = false; 
+    // Game loop variables
+    private static final int DEFAULT_TICK_RATE = 60; // Simulation ticks per second
+    private static final int DEFAULT_MAX_FPS = 120; // Frame cap (0 means uncapped)
+    private static final int MAX_TICKS_PER_FRAME = 5; // Ticks to catch up before dropping the rest
+    private final int tickRate; // Target simulation ticks per second
+    private final int maxFps; // Maximum rendered frames per second
+    private final long tickNanos; // Length of one simulation tick in nanoseconds
+    private volatile double interpolation = 0; // Fraction of a tick between the last update and this frame
+    private final FrameStats frameStats = new FrameStats(240); // Frame-time statistics
+    private volatile boolean showStats = false; // Flag to show the debug overlay (toggled with F3)
+    private volatile boolean paused = false; // Pause requested with Esc/Pause or by losing focus
+
+    // Cross-thread hand-off: other threads only enqueue, the renderer only reads the published snapshot
+    private final InputRing input = new InputRing(64); // Timestamped key presses from the EDT
+    private final SnapshotExchange snapshots; // Reusable snapshots for rendering, sized for the profile's tile pool
+
+    // Allocation tracking for the simulation thread
+    private final AllocationCounter allocationCounter = new AllocationCounter();
+    private volatile long tickCount = 0; // Number of simulation ticks run
+    private volatile int tileCount = 0; // Live tiles after the last tick, for the overlay
+    private volatile double tileSpeed = 0; // Fall speed after the last tick, for the overlay
+    private volatile long spawnMillis = 0; // Spawn interval after the last tick, for the overlay
+
+    // Metrics (-Dtilegame.inputBudgetMs sets the input budget, -Dtilegame.metricsDir turns on the export)
+    private static final int DEFAULT_INPUT_BUDGET_MS = 25; // Key down to judgement, about one and a half ticks at 60Hz
+    private final GameMetrics metrics; // Frame, tick, repaint and input histograms for this game
+    private volatile GameSimulation.Judgement lastJudgement; // Shown next to the score
+
+    // Replay recording, off unless -Dtilegame.replayDir names a directory (opened by the game thread, not the EDT)
+    private ReplayWriter replayWriter; // Streams this game's inputs, null when not recording
+    private Path replayFile; // File being recorded, null when not recording
+
+    // Rendering: cached layers drawn by whichever thread renders (game thread when active, EDT otherwise)
+    private ActiveRenderer activeRenderer; // Renders from the game thread through a BufferStrategy, or null for Swing repaint
+    private final LayeredRenderer layers; // Background, tiles and HUD with dirty-region updates
+
+    // Automation: -Dtilegame.bot=accuracy,reactionMs,jitterMs lets a BotPlayer play; the soak test also swaps the dialogs
+    private final InputScript bot; // Presses keys on the simulation thread, or null when a person plays
+    private GameDialogs dialogs = GameDialogs.SWING; // End-of-game questions
+    private Runnable restartAction = this::returnToMenu; // Run on the EDT when the player wants another game
+    private Runnable quitAction = () -> System.exit(0); // Run on the EDT when the player is done
 
     public TileGame(String difficulty) {
-        this.tiles = new ArrayList<>(); // Initialize the list of tiles
-        this.order = new LinkedList<>(); // Initialize the queue for key order
+        // Tick rate and frame cap can be tuned with -Dtilegame.tickRate and -Dtilegame.maxFps
+        this(difficulty, Integer.getInteger("tilegame.tickRate", DEFAULT_TICK_RATE),
+                Integer.getInteger("tilegame.maxFps", DEFAULT_MAX_FPS));
+    }
+
+    public TileGame(String difficulty, int tickRate, int maxFps) {
+        this(DifficultyProfile.get(difficulty), tickRate, maxFps); // Unknown difficulties play as the first profile
+    }
+
+    public TileGame(DifficultyProfile profile, int tickRate, int maxFps) {
+        this.tickRate = Math.max(1, tickRate); // At least one tick per second
+        this.maxFps = Math.max(0, maxFps); // Negative caps mean uncapped
+        this.tickNanos = TimeUnit.SECONDS.toNanos(1) / this.tickRate; // Duration of one tick
+        // Game rules, spawning and scoring; -Dtilegame.seed replays the same tile sequence every game
+        Long seed = Long.getLong("tilegame.seed");
+        this.simulation = new GameSimulation(profile, this.tickRate, seed != null ? seed : new Random().nextLong());
+        String botSpec = System.getProperty("tilegame.bot");
+        this.bot = botSpec != null ? BotPlayer.parse(botSpec, simulation.getSeed()) : null;
+        this.snapshots = new SnapshotExchange(simulation.getTileCapacity()); // Room for every tile the profile allows
+        this.metrics = new GameMetrics(TimeUnit.MILLISECONDS.toNanos(Integer.getInteger("tilegame.inputBudgetMs", DEFAULT_INPUT_BUDGET_MS)));
         this.setPreferredSize(new Dimension(640, 480)); // Set the preferred size of the panel
 
-        // Load images for the game
-        backgroundImage = new ImageIcon("play_screen.png").getImage();
-        tileImageA = new ImageIcon("a.png").getImage();
-        tileImageS = new ImageIcon("s.png").getImage();
-        tileImageD = new ImageIcon("d.png").getImage();
-        tileImageF = new ImageIcon("f.png").getImage();
-        tileImageB = new ImageIcon("b.png").getImage();
-        bonusImage = new ImageIcon("bonus.png").getImage();
-
-        // Set tile generation interval based on difficulty
-        switch (difficulty) {
-            case "Easy":
-                tileGenerationInterval = 2000; // 2 seconds for easy difficulty
-                break;
-            case "Medium":
-                tileGenerationInterval = 1000; // 1 second for medium difficulty
-                break;
-            case "Hard":
-                tileGenerationInterval = 600; // 0.6 seconds for hard difficulty
-                break;
-            default:
-                tileGenerationInterval = 2000; // Default to easy 
-        }
+        // Get images for the game from the shared cache (preloaded at startup, no disk access here)
+        AssetManager assets = AssetManager.getInstance();
+        backgroundImage = assets.getImage("play_screen.png");
 
         // Key listener to handle key presses
         this.setFocusable(true); // Make the panel focusable
-        this.addKeyListener(new KeyAdapter() {
+        KeyAdapter keyHandler = new KeyAdapter() {
             @Override
             public void keyPressed(KeyEvent e) {
+                if (e.getKeyCode() == KeyEvent.VK_F3) {
+                    showStats = !showStats; // Toggle the debug overlay
+                    return;
+                }
+                if (e.getKeyCode() == KeyEvent.VK_ESCAPE || e.getKeyCode() == KeyEvent.VK_PAUSE) {
+                    paused = !paused; // Toggle the pause (applied by the simulation thread)
+                    return;
+                }
+                long now = System.nanoTime(); // Timestamp the press before anything else
+                long dispatchNanos = TimeUnit.MILLISECONDS.toNanos(System.currentTimeMillis() - e.getWhen()); // Time spent reaching the EDT
                 char keyChar = e.getKeyChar(); // Get the character of the pressed key
-                checkKeyPress(keyChar); // Check if the pressed key matches the expected key
+                input.offer(keyChar, now, dispatchNanos); // Hand the key to the simulation thread
+            }
+        };
+        this.addKeyListener(keyHandler);
+        FocusAdapter focusHandler = new FocusAdapter() {
+            @Override
+            public void focusLost(FocusEvent e) {
+                paused = true; // Don't let tiles fall while the player is in another window
             }
-        });
+        };
+        this.addFocusListener(focusHandler);
+
+        // The simulation plays on the fixed logical board, so resizing only changes how it is drawn: the layers
+        // lay the board out for the panel's size (in device pixels) once per resize, with sprites cached per resolution
+        layers = new LayeredRenderer(backgroundImage, GameBoard.LANE_KEYS, simulation.getTileCapacity());
 
         // Enable double buffering for smoother rendering
         this.setDoubleBuffered(true);
-    }
 
-    @Override
-    public void paintComponent(Graphics g) {
-        super.paintComponent(g); // Call the superclass's paintComponent method
-        g.drawImage(backgroundImage, 0, 0, getWidth(), getHeight(), this); // Draw the background image
-        // Draw each tile on the panel
-        for (Tile tile : tiles) {
-            Image tileImage = getTileImage(tile.key); // Get the image for the tile based on its key
-            if (tileImage != null) {
-                g.drawImage(tileImage, tile.x, tile.y, tileSize, tileSize, this); // Draw the tile
-            }
+        // Use active rendering unless disabled with -Dtilegame.activeRendering=false or unsupported
+        boolean activeRequested = Boolean.parseBoolean(System.getProperty("tilegame.activeRendering", "true"));
+        if (activeRequested && ActiveRenderer.isSupported()) {
+            activeRenderer = new ActiveRenderer();
+            activeRenderer.getCanvas().addKeyListener(keyHandler); // The canvas receives key events
+            activeRenderer.getCanvas().addFocusListener(focusHandler);
+            this.setLayout(new BorderLayout());
+            this.add(activeRenderer.getCanvas(), BorderLayout.CENTER); // Canvas fills the panel
         }
-        // Display score and remaining time
-        g.setColor(Color.RED);
-        g.drawString("Score: " + score, 10, 20); // Display the score
-        g.drawString("Time Remaining: " + remainingTime + "s", 10, 40); // Display remaining time
     }
 
-    // Get the corresponding tile image based on the key pressed
-    private Image getTileImage(char key) {
-        switch (key) {
-            case 'a':
-                return tileImageA; // Return image for 'A'
-            case 's':
-                return tileImageS; // Return image for 'S'
-            case 'd':
-                return tileImageD; // Return image for 'D'
-            case 'f':
-                return tileImageF; // Return image for 'F'
-            case 'b':
-                return tileImageB; // Return image for bonus tile 'B'
-            default:
-                return null; // Return null for unrecognized keys
-        }
+    // Replace the end-of-game dialogs (call before the game starts)
+    public void setDialogs(GameDialogs dialogs) {
+        this.dialogs = dialogs;
     }
 
-    // Start the countdown timer
-    private void startTimer() {
-        timerRunning = true; // Set timer running flag to true
-        new Thread(() -> {
-            while (remainingTime > 0 && timerRunning) {
-                try {
-                    Thread.sleep(1000); // Wait for 1 second
-                    remainingTime--; // Decrement the remaining time
-                    repaint(); // Update the display
-                } catch (InterruptedException e) {
-                    Thread.currentThread().interrupt(); // Restore interrupted status
-                }
-            }
-            if (remainingTime <= 0) {
-                endGame(); // End the game when time runs out
-            }
-        }).start(); // Start the timer thread
+    // Replace what happens after the restart question (call before the game starts)
+    public void setRestartAction(Runnable restartAction, Runnable quitAction) {
+        this.restartAction = restartAction;
+        this.quitAction = quitAction;
     }
 
-    // Check if the pressed key matches the expected key
-    private void checkKeyPress(char keyChar) {
-        if (order.isEmpty()) {
-            return; // No tiles to press
-        }
+    // Frame, tick, repaint and input histograms of this game
+    public GameMetrics getMetrics() {
+        return metrics;
+    }
 
-        char expectedKey = order.peek(); // Get the expected key from the queue
-        if (keyChar == expectedKey) {
-            order.poll(); // Remove the expected key from the queue
-            for (int i = 0; i < tiles.size(); i++) {
-                Tile tile = tiles.get(i);
-                if (tile.key == expectedKey) {
-                    tiles.remove(i); // Remove the tile from the list
-                    score += tile.isBonus ? 5 : 1; // Update score based on tile type
-                    repaint(); // Update the display
-                    return; // Exit the method
-                }
-            }
-        } else {
-            endGame(); // End the game if the wrong key is pressed
-        }
+    // Final score; only meaningful once the game is over (e.g. in the restart action)
+    public int getScore() {
+        return simulation.getScore();
+    }
 
-        if (order.isEmpty()) {
-            JOptionPane.showMessageDialog(this, "All tiles cleared! Your score: " + score); // Show success message
-            restartGame(); // Restart the game
-        }
+    // Why the game ended, NONE while it runs
+    public GameSimulation.EndReason getEndReason() {
+        return simulation.getEndReason();
     }
 
-    // Add a new tile to the game
-    private void addNewTile() {
-        Random rand = new Random(); // Create a random number generator
-        int column; // Column for the new tile
-        char key; // Key associated with the new tile
-        boolean isBonus = rand.nextInt(10) < 2; // 20% chance to be a bonus tile
-        if (tileGenerationInterval == 600) {
-            do {
-                column = rand.nextInt(4); // Randomly select a column
-                key = getKeyForColumn2(column, isBonus); // Get the key for the column
-            } while (isColumnOccupied(column)); // Ensure the column is not occupied
-
-            int x = (getWidth() / 4) * column + gap * column; // Calculate x position
-            Tile tile = new Tile(x, -100, tileSize, tileSize, key, isBonus); // Create a new tile
-            tiles.add(tile); // Add the tile to the list
-            order.add(key); // Add the key to the order queue
-        } else {
-            do {
-                column = rand.nextInt(4); // Randomly select a column
-                key = getKeyForColumn(column, isBonus); // Get the key for the column
-            } while (isColumnOccupied(column)); // Ensure the column is not occupied
-
-            int x = (getWidth() / 4) * column + gap * column; // Calculate x position
-            Tile tile = new Tile(x, -100, tileSize, tileSize, key, isBonus); // Create a new tile
-            tiles.add(tile); // Add the tile to the list
-            order.add(key); // Add the key to the order queue
+    @Override
+    public boolean requestFocusInWindow() {
+        if (activeRenderer != null) {
+            return activeRenderer.getCanvas().requestFocusInWindow(); // Keys go to the canvas
         }
+        return super.requestFocusInWindow();
     }
 
-    // Get the key associated with a specific column
-    private char getKeyForColumn(int column, boolean isBonus) {
-        if (isBonus) {
-            return 'b'; // Return 'b' for bonus tiles
-        }
-        switch (column) {
-            case 0:
-                return 'a'; // Return 'a' for column 0
-            case 1:
-                return 's'; // Return 's' for column 1
-            case 2:
-                return 'd'; // Return 'd' for column 2
-            case 3:
-                return 'f'; // Return 'f' for column 3
-            default:
-                return ' '; // Return space for unrecognized columns
+    // Draw one frame through the active renderer (called on the game thread)
+    @Override
+    public void paintFrame(Graphics2D g, int width, int height, GraphicsConfiguration gc) {
+        GameEvents.PaintEvent event = new GameEvents.PaintEvent(); // Only recorded while a flight recording runs
+        event.begin();
+        long fullFrames = layers.getFullFrames();
+        layers.render(g, width, height, gc, snapshots.acquire(), interpolation, lastJudgement, paused); // Newest published state
+        if (showStats) {
+            drawStatsOverlay(g); // Display the debug overlay
         }
+        event.active = true;
+        event.fullRedraw = layers.getFullFrames() != fullFrames;
+        event.pixels = layers.getLastPixels();
+        event.commit();
     }
 
-    // Get the key associated with a specific column for a different generation logic
-    private char getKeyForColumn2(int column, boolean isBonus) {
-        Random rand = new Random(); // Create a random number generator
-        int z = rand.nextInt(4); // Randomly select a key from the available options
-        if (isBonus) {
-            return 'b'; // Return 'b' for bonus tiles
+    @Override
+    public void paintComponent(Graphics g) {
+        super.paintComponent(g); // Call the superclass's paintComponent method
+        if (activeRenderer != null) {
+            return; // The canvas covers the panel and is drawn by the game thread
         }
-        switch (z) {
-            case 0:
-                return 'a'; // Return 'a' for column 0
-            case 1:
-                return 's'; // Return 's' for column 1
-            case 2:
-                return 'd'; // Return 'd' for column 2
-            case 3:
-                return 'f'; // Return 'f' for column 3
-            default:
-                return ' '; // Return space for unrecognized columns
+        GameEvents.PaintEvent event = new GameEvents.PaintEvent();
+        event.begin();
+        long fullFrames = layers.getFullFrames();
+        layers.render((Graphics2D) g, getWidth(), getHeight(), getGraphicsConfiguration(), snapshots.acquire(),
+                interpolation, lastJudgement, paused); // Same layers, drawn on the EDT
+        if (showStats) {
+            drawStatsOverlay(g); // Display the debug overlay
         }
+        metrics.repaintDone(System.nanoTime()); // Repaint request to frame drawn
+        event.fullRedraw = layers.getFullFrames() != fullFrames;
+        event.pixels = layers.getLastPixels();
+        event.commit();
     }
 
-    // Check if a specific column is occupied by any tile
-    private boolean isColumnOccupied(int column) {
-        for (Tile tile : tiles) {
-            if (tile.x / (getWidth() / 4) == column) {
-                return true; // Return true if the column is occupied
-            }
+    // Draw the debug overlay (F3)
+    private void drawStatsOverlay(Graphics g) {
+        g.setColor(Color.YELLOW);
+        g.drawString(String.format("FPS: %.1f (cap %s)", frameStats.getFps(), maxFps > 0 ? maxFps : "off"), 10, 80);
+        g.drawString(String.format("Frame avg: %.2f ms  p99: %.2f ms", frameStats.getAverageMillis(), frameStats.getP99Millis()), 10, 95);
+        g.drawString("Tick rate: " + tickRate + " Hz  Dropped ticks: " + frameStats.getDroppedTicks(), 10, 110);
+        g.drawString("Renderer: " + (activeRenderer != null ? "active (BufferStrategy)" : "passive (repaint)"), 10, 125);
+        long allocated = allocationCounter.getAllocatedBytes(); // Bytes allocated by the simulation thread
+        long ticks = tickCount;
+        if (allocated >= 0) {
+            g.drawString(String.format("Sim alloc: %d KB (%.1f B/tick)", allocated / 1024, ticks > 0 ? allocated / (double) ticks : 0.0), 10, 140);
         }
-        return false; // Return false if the column is not occupied
+        g.drawString("GC: " + AllocationCounter.getGcCount() + " runs, " + AllocationCounter.getGcTimeMillis() + " ms", 10, 155);
+        g.drawString(String.format("Tick avg: %.3f ms  p99: %.3f ms  Repaint p99: %.2f ms", metrics.getTickTime().getAverageMillis(),
+                metrics.getTickTime().getPercentileMillis(99), metrics.getRepaintLatency().getPercentileMillis(99)), 10, 170);
+        g.drawString(String.format("Input p99: %.2f ms  over %d ms budget: %d  dropped: %d", metrics.getInputLatency().getPercentileMillis(99),
+                TimeUnit.NANOSECONDS.toMillis(metrics.getInputBudgetNanos()), metrics.getOverBudget(), input.getDropped()), 10, 185);
+        g.drawString(String.format("Profile: %s  Tiles: %d / %d  Speed: %.0f px/s  Spawn: %d ms", simulation.getDifficulty(), tileCount,
+                simulation.getTileCapacity(), tileSpeed, spawnMillis), 10, 200);
+        g.drawString(String.format("Layers: %d partial / %d full frames, last %d px", layers.getPartialFrames(),
+                layers.getFullFrames(), layers.getLastPixels()), 10, 215);
+        g.drawString("Layout: " + layers.getLayout(), 10, 230);
+    }
+
+    // Publish a copy of the state for the renderer (simulation thread only)
+    private void publishSnapshot() {
+        simulation.copyTo(snapshots.getBackBuffer()); // Fill a free snapshot
+        snapshots.publish(); // Hand it to the renderer
     }
 
-    // End the game and handle score saving
+    // End the game (simulation thread) and hand the dialogs over to the EDT
     private void endGame() {
         running = false; // Stop the game loop
-        timerRunning = false; // Stop the timer
+        publishSnapshot(); // Show the final state
+        finishReplay(); // Close the replay before anyone reads it
+        final int finalScore = simulation.getScore(); // The simulation has stopped, so this is the final score
+        GameEvents.GameOverEvent event = new GameEvents.GameOverEvent();
+        event.difficulty = simulation.getDifficulty();
+        event.score = finalScore;
+        event.endReason = String.valueOf(simulation.getEndReason());
+        event.ticks = simulation.getTickCount();
+        event.allocated = allocationCounter.getAllocatedBytes();
+        event.commit();
+        exportMetrics(); // Save this session's metrics
+        final Path replay = replayFile; // Recorded replay of this game, or null
+        SwingUtilities.invokeLater(() -> showGameOver(finalScore, replay));
+    }
+
+    // Start recording a replay of this game into the replay directory (simulation thread, before the first tick)
+    private void startReplay() {
+        String directory = System.getProperty("tilegame.replayDir", "");
+        if (directory.isEmpty()) {
+            return; // Recording not requested
+        }
+        String name = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")) + "-"
+                + simulation.getDifficulty() + "-" + Long.toHexString(simulation.getSeed()) + ".tgr";
+        Path file = Paths.get(directory, name);
+        try {
+            Files.createDirectories(file.getParent());
+            replayWriter = new ReplayWriter(file, simulation.getProfile(), tickRate, simulation.getSeed());
+            replayFile = file;
+            simulation.setRecorder(replayWriter); // Every input from now on goes into the replay
+        } catch (IOException e) {
+            System.err.println("Could not record replay " + file + ": " + e.getMessage()); // Play without recording
+        }
+    }
+
+    // Finish the replay file (simulation thread, after the game ended)
+    private void finishReplay() {
+        if (replayWriter == null) {
+            return;
+        }
+        simulation.setRecorder(null);
+        try {
+            replayWriter.close(); // Flushes the buffered events
+        } catch (IOException e) {
+            System.err.println("Could not write replay " + replayFile + ": " + e.getMessage());
+            replayFile = null; // An incomplete replay cannot verify the score
+        }
+        replayWriter = null;
+    }
 
-        String difficulty = "maxscore"; // Set difficulty for high score management
+    // Write this session's metrics as CSV and JSON when an export directory was given (simulation thread)
+    private void exportMetrics() {
+        Path directory = GameMetrics.getExportDirectory();
+        if (directory == null) {
+            return; // Export is off, don't build anything
+        }
+        LocalDateTime now = LocalDateTime.now();
+        String session = now.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME) + "/" + simulation.getDifficulty();
+        Map<String, Object> values = new LinkedHashMap<>();
+        values.put("difficulty", simulation.getDifficulty());
+        values.put("score", simulation.getScore());
+        values.put("end_reason", String.valueOf(simulation.getEndReason()));
+        values.put("ticks", simulation.getTickCount());
+        values.put("tick_rate", tickRate);
+        values.put("frames", frameStats.getTotalFrames());
+        values.put("dropped_ticks", frameStats.getDroppedTicks());
+        values.put("renderer", activeRenderer != null ? "active" : "passive");
+        values.put("partial_frames", layers.getPartialFrames());
+        values.put("full_frames", layers.getFullFrames());
+        values.put("sim_allocated_bytes", allocationCounter.getAllocatedBytes());
+        for (GameSimulation.Judgement judgement : GameSimulation.Judgement.values()) {
+            values.put("judgement_" + judgement.name().toLowerCase(Locale.ROOT), simulation.getJudgementCount(judgement)); // Hits per grade
+        }
+        values.put("input_dropped", input.getDropped());
+
+        String name = now.format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss-SSS")) + "-" + simulation.getDifficulty();
+        metrics.export(directory, name, session, values);
+    }
 
+    // Handle score saving and the restart prompt (EDT)
+    private void showGameOver(int score, Path replay) {
         // Get the current high score for the selected difficulty
-        ScoreManager scoreManager = new ScoreManager();
-        String[] highScoreParts = scoreManager.getHighScore(difficulty).split(": ");
-        int currentHighScore = highScoreParts.length > 1 ? Integer.parseInt(highScoreParts[1]) : 0;
+        ScoreManager scoreManager = ScoreManager.getInstance(); // Cached in memory, no disk access
+        String difficulty = simulation.getDifficulty(); // Leaderboard for the difficulty that was played
+        int currentHighScore = scoreManager.getHighScoreValue(difficulty);
 
         // Check if the current score is higher than the current high score
         if (score > currentHighScore) {
-            String name = JOptionPane.showInputDialog(this, "New High Score! Your score: " + score + "\nEnter your name:", "New High Score", JOptionPane.QUESTION_MESSAGE);
+            String name = dialogs.askName(this, "New High Score! Your score: " + score + "\nEnter your name:", "New High Score");
             if (name != null && !name.trim().isEmpty()) {
-                scoreManager.saveScore(difficulty, name, score); // Save score for the selected difficulty
+                saveScore(scoreManager, difficulty, name, score, replay); // Save score for the selected difficulty
             }
         } else {
-            String name = JOptionPane.showInputDialog(this, "Game Over! Your score: " + score + "\nEnter your name:", "Game Over", JOptionPane.QUESTION_MESSAGE);
+            String name = dialogs.askName(this, "Game Over! Your score: " + score + "\nEnter your name:", "Game Over");
             if (name != null && !name.trim().isEmpty()) {
-                scoreManager.saveScore(difficulty, name, score); // Save score for the selected difficulty
+                saveScore(scoreManager, difficulty, name, score, replay); // Save score for the selected difficulty
             }
         }
 
         // Ask the player if they want to restart the game
-        int response = JOptionPane.showConfirmDialog(this, "Would you like to restart?", "Game Over", JOptionPane.YES_NO_OPTION);
-        if (response == JOptionPane.YES_OPTION) {
-            // Return to the main menu
-            JFrame frame = (JFrame) SwingUtilities.getWindowAncestor(this);
-            frame.getContentPane().removeAll();
-            frame.add(new MainMenu()); // Add the MainMenu instance
-            frame.revalidate();
-            frame.repaint();
+        boolean restart = dialogs.askRestart(this);
+        releaseRendering(); // The last frame stayed on screen behind the dialogs; nothing draws this game again
+        if (restart) {
+            restartAction.run(); // Back to the main menu unless replaced
         } else {
-            System.exit(0); // Exit the application
+            quitAction.run(); // Exit the application unless replaced
         }
     }
 
-    // Restart the game
-    private void restartGame() {
-        running = true; // Set running flag to true
-        score = 0; // Reset score
-        tiles.clear(); // Clear the list of tiles
-        order.clear(); // Clear the order queue
-        lastTileTime = System.currentTimeMillis(); // Reset last tile time
-        remainingTime = 120; // Reset the timer
-        timerRunning = false; // Reset timer running flag
-        repaint(); // Update the display
+    // Release the back buffers and cached layer images (EDT, after the game loop has stopped)
+    private void releaseRendering() {
+        if (activeRenderer != null) {
+            activeRenderer.dispose(); // The loop stopped rendering in endGame, before these dialogs were shown
+        }
+        layers.flush();
+    }
+
+    // Return to the main menu (EDT)
+    private void returnToMenu() {
+        JFrame frame = (JFrame) SwingUtilities.getWindowAncestor(this);
+        frame.getContentPane().removeAll();
+        frame.add(new MainMenu()); // Add the MainMenu instance
+        frame.revalidate();
+        frame.repaint();
+    }
+
+    // Save a score, checked against its replay when one was recorded
+    private static void saveScore(ScoreManager scoreManager, String difficulty, String name, int score, Path replay) {
+        if (replay != null) {
+            scoreManager.saveVerifiedScore(difficulty, name, score, replay); // Played back headless on the score writer thread
+        } else {
+            scoreManager.saveScore(difficulty, name, score);
+        }
     }
 
     @Override
     public void run() {
-        startTimer(); // Start the timer
+        startReplay(); // File I/O stays off the EDT, and restarts don't touch the disk unless recording was asked for
+        allocationCounter.attachToCurrentThread(); // Measure allocations made by the simulation
+        long frameNanos = maxFps > 0 ? TimeUnit.SECONDS.toNanos(1) / maxFps : 0; // Minimum time per frame
+        long previousTime = System.nanoTime(); // Timestamp of the previous frame
+        long accumulator = 0; // Real time not yet consumed by simulation ticks
         while (running) {
-            long currentTime = System.currentTimeMillis(); // Get the current time
-            if (currentTime - lastTileTime > tileGenerationInterval) {
-                addNewTile(); // Add a new tile if the generation interval has passed
-                lastTileTime = currentTime; // Update last tile time
-            }
-
-            // Update tile positions and check for game over condition
-            for (int i = 0; i < tiles.size(); i++) {
-                Tile tile = tiles.get(i);
-                tile.y += 5; // Move tile down
-
-                // Check if the tile has reached the bottom of the panel
-                if (tile.y > getHeight()) {
-                    endGame(); // End the game if a tile reaches the bottom
-                    return; // Exit the loop
+            long frameStart = System.nanoTime(); // Timestamp of this frame
+            long elapsed = frameStart - previousTime; // Real time since the previous frame
+            previousTime = frameStart;
+            frameStats.recordFrame(elapsed); // Record the frame time
+            metrics.recordFrame(elapsed);
+            GameEvents.FrameEvent event = new GameEvents.FrameEvent(); // Only recorded while a flight recording runs
+            event.begin();
+            accumulator += elapsed; // Add the elapsed time to the accumulator
+
+            // Run fixed-length simulation ticks until the simulation has caught up
+            int ticks = 0;
+            while (accumulator >= tickNanos && running) {
+                if (ticks == MAX_TICKS_PER_FRAME) {
+                    frameStats.addDroppedTicks(accumulator / tickNanos); // Record the ticks we give up on
+                    event.droppedTicks = accumulator / tickNanos;
+                    accumulator %= tickNanos; // Keep only the partial tick
+                    break;
                 }
+                update(frameStart - accumulator); // Advance the simulation by one tick starting at this wall time
+                accumulator -= tickNanos;
+                ticks++;
+            }
+            if (!running) {
+                return; // The game ended during this frame
             }
 
-            repaint(); // Refresh the display
+            interpolation = paused ? 1.0 : accumulator / (double) tickNanos; // How far we are into the next tick (frozen while paused)
+            long renderStart = System.nanoTime();
+            if (activeRenderer != null) {
+                if (activeRenderer.render(this)) {
+                    metrics.recordRepaint(System.nanoTime() - renderStart); // Drawn and shown on this thread
+                } // Else the canvas is not on screen yet; the canvas covers the panel, so a Swing repaint would draw nothing
+            } else {
+                metrics.repaintRequested(renderStart); // Completed when the EDT paints
+                repaint(); // Swing's passive repaint
+            }
+            event.ticks = ticks;
+            event.tiles = tileCount;
+            event.commit();
 
+            // Respect the frame cap, or yield when uncapped
+            long sleepNanos = frameNanos - (System.nanoTime() - frameStart);
             try {
-                Thread.sleep(16); // Sleep for a short duration to control the game loop speed
+                if (sleepNanos > 0) {
+                    TimeUnit.NANOSECONDS.sleep(sleepNanos); // Sleep until the next frame is due
+                } else {
+                    Thread.yield(); // Let other threads run
+                }
             } catch (InterruptedException e) {
                 Thread.currentThread().interrupt(); // Restore interrupted status
+                return;
             }
         }
     }
-}
-
-class Tile {
-
-    int x, y, width, height; // Position and size of the tile
-    char key; // Key associated with the tile
-    boolean isBonus; // Flag to indicate if the tile is a bonus tile
-
-    // Constructor for Tile class
-    public Tile(int x, int y, int width, int height, char key, boolean isBonus) {
-        this.x = x; // Set x position
-        this.y = y; // Set y position
-        this.width = width; // Set width
-        this.height = height; // Set height
-        this.key = key; // Set associated key
-        this.isBonus = isBonus; // Set bonus flag
+
+    // Advance the simulation by exactly one tick; tickStart is the wall time (nanoTime) the tick begins at
+    private void update(long tickStart) {
+        long started = System.nanoTime();
+        long tickEnd = tickStart + tickNanos;
+        boolean pause = paused; // Read the request once per tick
+        if (pause != simulation.isPaused()) {
+            simulation.setPaused(pause); // Freezes the countdown, spawns and ramps with everything else
+        }
+        if (pause) {
+            while (!input.isEmpty() && input.peekTime() <= tickEnd) {
+                input.poll(); // Presses made while paused don't count
+            }
+            return;
+        }
+        GameEvents.TickEvent event = new GameEvents.TickEvent(); // Only recorded while a flight recording runs
+        event.begin();
+        // Judge every press made before this tick ends; later presses wait for the tick they happened in
+        while (!input.isEmpty() && input.peekTime() <= tickEnd) {
+            long pressedAt = input.peekTime();
+            char key = input.peekKey();
+            GameSimulation.Judgement judgement = simulation.pressKey(key, tickStart - pressedAt); // Judge where the tile was at key down
+            long dispatchNanos = input.peekDispatchNanos();
+            input.poll(); // Free the slot for the EDT
+            long latency = System.nanoTime() - pressedAt; // Key down to judgement
+            metrics.recordInput(latency, dispatchNanos);
+            event.inputs++;
+            if (judgement != null) {
+                lastJudgement = judgement;
+            }
+            GameEvents.InputEvent inputEvent = new GameEvents.InputEvent();
+            if (inputEvent.shouldCommit()) {
+                inputEvent.key = key;
+                inputEvent.judgement = judgement != null ? judgement.name() : "NONE";
+                inputEvent.latency = latency;
+                inputEvent.timingError = judgement != null ? simulation.getLastTimingErrorNanos() : 0;
+                inputEvent.commit();
+            }
+        }
+        if (bot != null) {
+            bot.beforeTick(simulation); // Scripted presses for this tick
+        }
+        simulation.tick(); // Spawn, move and check the end conditions
+        tickCount = simulation.getTickCount(); // Publish the tick count for the overlay
+        tileCount = simulation.getTiles().size();
+        tileSpeed = simulation.getSpeed();
+        spawnMillis = TimeUnit.NANOSECONDS.toMillis(simulation.getSpawnIntervalNanos());
+        metrics.recordTick(System.nanoTime() - started, tileCount);
+        event.tick = tickCount;
+        event.tiles = tileCount;
+        event.commit();
+        if (simulation.isOver()) {
+            endGame(); // Wrong key, missed tile or time up
+            return;
+        }
+        publishSnapshot(); // Hand the new state to the renderer
     }
 }
\ No newline at end of file
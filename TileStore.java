@@ -0,0 +1,157 @@
+// Fixed-capacity pool of tiles stored in parallel primitive arrays, ordered oldest first (ring buffer)
+public class TileStore {
+    private final int capacity; // Maximum number of live tiles
+    private final int[] x; // Horizontal position of each tile
+    private final double[] y; // Vertical position of each tile
+    private final double[] prevY; // Vertical position of each tile at the previous tick
+    private final char[] key; // Key associated with each tile
+    private final boolean[] bonus; // Flag to indicate if the tile is a bonus tile
+    private final int[] lane; // Lane (column) the tile falls in
+    private final int[] serial; // Spawn number of the tile, increasing from oldest to newest
+    private int nextSerial = 0; // Serial number for the next spawned tile
+    private int head = 0; // Physical slot of the oldest tile
+    private int size = 0; // Number of live tiles
+
+    // Constructor for TileStore
+    public TileStore(int capacity) {
+        this.capacity = capacity; // Set the capacity
+        this.x = new int[capacity]; // All storage is allocated up front
+        this.y = new double[capacity];
+        this.prevY = new double[capacity];
+        this.key = new char[capacity];
+        this.bonus = new boolean[capacity];
+        this.lane = new int[capacity];
+        this.serial = new int[capacity];
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean isFull() {
+        return size == capacity;
+    }
+
+    // Convert a logical index (0 = oldest tile) into a physical array slot
+    private int slot(int i) {
+        int s = head + i;
+        return s >= capacity ? s - capacity : s; // Wrap around without a modulo
+    }
+
+    // Add a tile at the end of the store; returns its logical index, or -1 if the store is full
+    public int add(int tileX, double tileY, char tileKey, boolean isBonus, int tileLane) {
+        if (size == capacity) {
+            return -1; // No free slot
+        }
+        int s = slot(size); // First free slot after the newest tile
+        x[s] = tileX;
+        y[s] = tileY;
+        prevY[s] = tileY; // Start without any movement to interpolate
+        key[s] = tileKey;
+        bonus[s] = isBonus;
+        lane[s] = tileLane;
+        serial[s] = nextSerial++; // Serial numbers keep the spawn order
+        return size++;
+    }
+
+    // Find the oldest tile with the given key, or -1 if there is none
+    public int indexOfKey(char tileKey) {
+        for (int i = 0; i < size; i++) {
+            if (key[slot(i)] == tileKey) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    // Find the tile with the given serial number, or -1 if it is no longer alive
+    public int indexOfSerial(int tileSerial) {
+        int low = 0;
+        int high = size - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1; // Serials are sorted, so binary search
+            int value = serial[slot(mid)];
+            if (value < tileSerial) {
+                low = mid + 1;
+            } else if (value > tileSerial) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    // Remove the tile at the given logical index, keeping the remaining tiles in order
+    public void remove(int i) {
+        if (i == 0) {
+            head = slot(1); // Removing the oldest tile just advances the head
+            size--;
+            return;
+        }
+        for (int j = i; j < size - 1; j++) {
+            int to = slot(j); // Shift newer tiles down by one slot
+            int from = slot(j + 1);
+            x[to] = x[from];
+            y[to] = y[from];
+            prevY[to] = prevY[from];
+            key[to] = key[from];
+            bonus[to] = bonus[from];
+            lane[to] = lane[from];
+            serial[to] = serial[from];
+        }
+        size--;
+    }
+
+    // Move every tile down by the given distance, remembering the previous position
+    public void moveAll(double step) {
+        for (int i = 0; i < size; i++) {
+            int s = slot(i);
+            prevY[s] = y[s]; // Remember the previous position for interpolation
+            y[s] += step; // Move tile down
+        }
+    }
+
+    // Remove all tiles
+    public void clear() {
+        head = 0;
+        size = 0;
+        nextSerial = 0;
+    }
+
+    public int getX(int i) {
+        return x[slot(i)];
+    }
+
+    public double getY(int i) {
+        return y[slot(i)];
+    }
+
+    public double getPrevY(int i) {
+        return prevY[slot(i)];
+    }
+
+    public char getKey(int i) {
+        return key[slot(i)];
+    }
+
+    public boolean isBonus(int i) {
+        return bonus[slot(i)];
+    }
+
+    public int getLane(int i) {
+        return lane[slot(i)];
+    }
+
+    public int getSerial(int i) {
+        return serial[slot(i)];
+    }
+}
@@ -0,0 +1,51 @@
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+// Headless tournament: many bot boards at once on one BoardScheduler, to see how the engine scales across cores
+public class Tournament {
+
+    // Usage: java Tournament [difficulty] [boards] [workers] [seed] [realtime]
+    //   realtime=true ticks every board at its tick rate and reports how far the workers fell behind;
+    //   otherwise each board plays as fast as a worker can and the total tick throughput is reported.
+    public static void main(String[] args) {
+        String difficulty = args.length > 0 ? args[0] : "Hard";
+        int boardCount = args.length > 1 ? Integer.parseInt(args[1]) : 64;
+        int workers = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+        long seed = args.length > 3 ? Long.parseLong(args[3]) : System.nanoTime();
+        boolean realtime = args.length > 4 && Boolean.parseBoolean(args[4]);
+        int tickRate = 60;
+
+        long start = System.nanoTime();
+        try (BoardScheduler scheduler = new BoardScheduler(workers)) {
+            for (int i = 0; i < boardCount; i++) {
+                GameSimulation simulation = new GameSimulation(difficulty, tickRate, seed + i); // Board i plays its own tiles
+                GameBoard board = new GameBoard("Bot " + (i + 1), simulation, InputScript.perfect());
+                if (realtime) {
+                    scheduler.start(board);
+                } else {
+                    scheduler.startUnpaced(board);
+                }
+            }
+            scheduler.allFinished().join(); // Throws if a board failed
+            double seconds = (System.nanoTime() - start) / 1e9;
+
+            List<GameBoard> boards = new ArrayList<>(scheduler.getBoards());
+            boards.sort(Comparator.comparingInt(GameBoard::getScore).reversed()); // Winner first
+            long totalTicks = 0;
+            double worstLag = 0;
+            for (GameBoard board : boards) {
+                totalTicks += board.getTickCount();
+                worstLag = Math.max(worstLag, board.getMaxLagMillis());
+            }
+            for (int i = 0; i < Math.min(10, boards.size()); i++) {
+                GameBoard board = boards.get(i);
+                System.out.printf("%2d. %-8s %6d  (%s after %d ticks)%n", i + 1, board.getName(), board.getScore(),
+                        board.getEndReason(), board.getTickCount());
+            }
+            System.out.printf("%d %s boards on %d workers, %d ticks in %.2f s: %.0f ticks/s%s%n", boardCount, difficulty,
+                    scheduler.getWorkers(), totalTicks, seconds, totalTicks / seconds,
+                    realtime ? String.format(", worst tick lag %.2f ms", worstLag) : "");
+        }
+    }
+}
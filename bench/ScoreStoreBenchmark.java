@@ -0,0 +1,81 @@
+package bench;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import org.openjdk.jmh.annotations.*;
+
+// Cost of loading and saving high scores with leaderboards of 10k+ entries
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ScoreStoreBenchmark {
+
+    @Param({"10000", "50000"})
+    public int entries;
+
+    private Path directory; // Scratch directory holding the score files
+    private Closeable store; // Store used by the save benchmarks
+    private Callable<Object> load;
+    private Callable<Object> saveDurable;
+    private Callable<Object> saveQueued;
+    private Callable<Object> flush;
+    private Callable<Object> top;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        directory = Files.createTempDirectory("scorestore-bench");
+        Targets.get("seedScores", new Class<?>[] {Path.class, int.class}, directory, entries);
+        store = Targets.get("openScores", new Class<?>[] {Path.class, int.class}, directory, entries);
+        load = Targets.get("scoreLoad", new Class<?>[] {Path.class, int.class}, directory, entries);
+        saveDurable = Targets.get("scoreSaveDurable", new Class<?>[] {Closeable.class, int.class}, store, entries);
+        saveQueued = Targets.get("scoreSaveQueued", new Class<?>[] {Closeable.class, int.class}, store, entries);
+        flush = Targets.get("scoreFlush", new Class<?>[] {Closeable.class}, store);
+        top = Targets.get("scoreTop", new Class<?>[] {Closeable.class}, store);
+    }
+
+    @TearDown(Level.Iteration)
+    public void flushQueued() throws Exception {
+        flush.call(); // Keep queued saves from piling up across iterations
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        store.close();
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    // Startup cost: read the snapshot and replay the log
+    @Benchmark
+    public Object load() throws Exception {
+        return load.call();
+    }
+
+    // Durable save of a single score (one append and one fsync)
+    @Benchmark
+    public Object saveDurable() throws Exception {
+        return saveDurable.call();
+    }
+
+    // In-memory save as done by the shared ScoreManager (the background writer flushes later)
+    @Benchmark
+    public Object saveQueued() throws Exception {
+        return saveQueued.call();
+    }
+
+    // Reading the whole leaderboard
+    @Benchmark
+    public Object top() throws Exception {
+        return top.call();
+    }
+}
@@ -0,0 +1,49 @@
+package bench;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.function.IntSupplier;
+import org.openjdk.jmh.annotations.*;
+
+// Cost of the headless game core: full ticks, tile spawning and key resolution
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SimulationBenchmark {
+
+    @Param({"Easy", "Medium", "Hard", "Stress"})
+    public String difficulty;
+
+    private IntSupplier tick; // One tick with a perfect scripted player
+    private IntSupplier spawn; // One tile spawn
+    private BooleanSupplier resolveKey; // One correct key press (plus respawn)
+
+    @Setup(Level.Iteration)
+    public void setUp() throws Exception {
+        Class<?>[] difficultyOnly = {String.class};
+        tick = Targets.get("simulationTick", difficultyOnly, difficulty);
+        spawn = Targets.get("simulationSpawn", difficultyOnly, difficulty);
+        resolveKey = Targets.get("simulationResolveKey", difficultyOnly, difficulty);
+    }
+
+    // Tick throughput: input, spawning, movement and end checks
+    @Benchmark
+    public int tick() {
+        return tick.getAsInt();
+    }
+
+    // Spawn cost: free-lane pick, pooled tile and order queue
+    @Benchmark
+    public int spawn() {
+        return spawn.getAsInt();
+    }
+
+    // Key resolution cost, including one respawn per press (subtract spawn() for the resolution alone)
+    @Benchmark
+    public boolean resolveKey() {
+        return resolveKey.getAsBoolean();
+    }
+}
@@ -0,0 +1,23 @@
+package bench;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+
+// Looks up the factories in the game's BenchmarkTargets class (default package, so it cannot be imported)
+final class Targets {
+
+    private Targets() {
+    }
+
+    // Call a static factory on BenchmarkTargets and cast the result
+    @SuppressWarnings("unchecked")
+    static <T> T get(String factory, Class<?>[] parameterTypes, Object... args) throws Exception {
+        Method method = Class.forName("BenchmarkTargets").getMethod(factory, parameterTypes);
+        try {
+            return (T) method.invoke(null, args);
+        } catch (InvocationTargetException e) {
+            Throwable cause = e.getCause();
+            throw cause instanceof Exception ? (Exception) cause : e; // Surface the real failure
+        }
+    }
+}